@@ -0,0 +1,114 @@
+package com.mlorenzo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mlorenzo.codec.DomainCodec;
+import com.mlorenzo.codec.ReviewView;
+import com.mlorenzo.domain.Movie;
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Revenue;
+import com.mlorenzo.domain.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compara el número de codificaciones y decodificaciones por segundo de una película con DomainCodec, en un buffer del
+// heap y en un buffer directo, y con JSON (Jackson). También mide la lectura de las valoraciones con ReviewView, sin
+// crear los objetos Review.
+// Se ejecuta con el resto de microbenchmarks mediante ./gradlew jmh y los resultados quedan en
+// build/results/jmh/results.txt.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CodecBenchmark {
+
+    @Param({"2", "100"})
+    int reviews;
+
+    Movie movie;
+    ObjectMapper objectMapper;
+    ByteBuffer heapBuffer;
+    ByteBuffer directBuffer;
+    ByteBuffer encodedMovie;
+    byte[] jsonMovie;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Review> reviewList = new ArrayList<>(reviews);
+
+        for(long i = 0; i < reviews; i++)
+            reviewList.add(new Review(i, 100L, "Awesome Movie", 8.9));
+
+        movie = new Movie(new MovieInfo(100L, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"),
+                LocalDate.parse("2005-06-15")), reviewList, new Revenue(100L, 1_000_000, 5_000_000), null);
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        var size = DomainCodec.encodedSize(movie);
+
+        heapBuffer = ByteBuffer.allocate(size);
+        directBuffer = ByteBuffer.allocateDirect(size);
+        encodedMovie = ByteBuffer.allocateDirect(size);
+        DomainCodec.encode(movie, encodedMovie);
+        encodedMovie.flip();
+        jsonMovie = objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeHeap() {
+        heapBuffer.clear();
+        DomainCodec.encode(movie, heapBuffer);
+
+        return heapBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeDirect() {
+        directBuffer.clear();
+        DomainCodec.encode(movie, directBuffer);
+
+        return directBuffer;
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public Movie decode() {
+        return DomainCodec.decodeMovie(encodedMovie.duplicate());
+    }
+
+    @Benchmark
+    public Movie decodeJson() throws Exception {
+        return objectMapper.readValue(jsonMovie, Movie.class);
+    }
+
+    // Media de las valoraciones leyendo solo los campos necesarios de cada reseña.
+    @Benchmark
+    public double averageRatingWithViews() {
+        // Posición de la primera reseña: cabecera de Movie, registro MovieInfo y número de reseñas.
+        var offset = DomainCodec.HEADER_SIZE + DomainCodec.encodedSize(movie.getMovie()) + Integer.BYTES;
+        var sum = 0.0;
+
+        for(int i = 0; i < reviews; i++) {
+            var view = ReviewView.wrap(encodedMovie, offset);
+
+            sum += view.getRating();
+            offset += view.length();
+        }
+
+        return sum / reviews;
+    }
+}
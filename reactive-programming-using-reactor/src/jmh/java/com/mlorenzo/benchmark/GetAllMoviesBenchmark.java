@@ -0,0 +1,41 @@
+package com.mlorenzo.benchmark;
+
+import com.mlorenzo.service.MovieReactiveService;
+import com.mlorenzo.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Mide el tiempo que tarda "getAllMovies" en construir todo el catálogo según su tamaño.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GetAllMoviesBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int catalogSize;
+
+    MovieReactiveService movieReactiveService;
+
+    @Setup
+    public void setUp() {
+        movieReactiveService = new MovieReactiveService(StubServices.movieInfoService(catalogSize),
+                new ReviewService(), StubServices.revenueService());
+    }
+
+    @Benchmark
+    public void getAllMovies(Blackhole blackhole) {
+        movieReactiveService.getAllMovies()
+                .doOnNext(blackhole::consume)
+                .then()
+                .block();
+    }
+}
@@ -0,0 +1,47 @@
+package com.mlorenzo.benchmark;
+
+import com.mlorenzo.domain.Movie;
+import com.mlorenzo.service.MovieReactiveService;
+import com.mlorenzo.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Mide el tiempo que tarda cada variante de búsqueda de una película por id. El tamaño del catálogo no influye en
+// estas búsquedas porque el servicio de películas genera directamente la película solicitada.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GetMovieByIdBenchmark {
+
+    MovieReactiveService movieReactiveService;
+    long movieId;
+
+    @Setup
+    public void setUp() {
+        movieReactiveService = new MovieReactiveService(StubServices.movieInfoService(1),
+                new ReviewService(), StubServices.revenueService());
+        movieId = 100L;
+    }
+
+    @Benchmark
+    public Movie getMovieByIdWithZipWith() {
+        return movieReactiveService.getMovieByIdWithZipWith(movieId).block();
+    }
+
+    @Benchmark
+    public Movie getMovieByIdWithFlatMap() {
+        return movieReactiveService.getMovieByIdWithFlatMap(movieId).block();
+    }
+
+    @Benchmark
+    public Movie getMovieByIdWithRevenue() {
+        return movieReactiveService.getMovieByIdWithRevenue(movieId).block();
+    }
+}
@@ -0,0 +1,54 @@
+package com.mlorenzo.benchmark;
+
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Revenue;
+import com.mlorenzo.service.MovieInfoService;
+import com.mlorenzo.service.RevenueService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Servicios sin los retrasos artificiales de los servicios originales, para que los benchmarks midan solo el coste de
+// los pipelines de MovieReactiveService.
+class StubServices {
+    private static final List<String> CAST = List.of("Christian Bale", "Michael Cane");
+    private static final LocalDate RELEASE_DATE = LocalDate.parse("2005-06-15");
+
+    private StubServices() {
+    }
+
+    // Catálogo de "catalogSize" películas que se generan según se van solicitando.
+    static MovieInfoService movieInfoService(int catalogSize) {
+        return new MovieInfoService() {
+            @Override
+            public Flux<MovieInfo> retrieveMoviesFlux() {
+                return Flux.range(0, catalogSize)
+                        .map(index -> movieInfo(100L + index));
+            }
+
+            @Override
+            public Mono<MovieInfo> retrieveMovieInfoMonoUsingId(long movieId) {
+                return Mono.fromSupplier(() -> movieInfo(movieId));
+            }
+        };
+    }
+
+    static RevenueService revenueService() {
+        return new RevenueService() {
+            @Override
+            public Mono<Revenue> getRevenueMono(Long movieId) {
+                return Mono.fromSupplier(() -> Revenue.builder()
+                        .movieInfoId(movieId)
+                        .budget(1000000)
+                        .boxOffice(5000000)
+                        .build());
+            }
+        };
+    }
+
+    private static MovieInfo movieInfo(long movieId) {
+        return new MovieInfo(movieId, "Batman Begins", 2005, CAST, RELEASE_DATE);
+    }
+}
@@ -0,0 +1,336 @@
+package com.mlorenzo.codec;
+
+import com.mlorenzo.domain.CompactMovieInfo;
+import com.mlorenzo.domain.Movie;
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Revenue;
+import com.mlorenzo.domain.Review;
+import com.mlorenzo.exception.CodecException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Codificador binario de las clases del dominio. Escribe y lee directamente en un ByteBuffer, que puede ser directo
+// (fuera del heap) o no, sin copias intermedias en arrays de bytes.
+// Cada registro empieza con una cabecera de 3 bytes: el tipo de registro, la versión del formato y un byte con un bit
+// por cada campo numérico u objeto que no es null. Después van los campos de tamaño fijo, de forma que se puedan leer
+// directamente por su posición, y al final los de tamaño variable. Las cadenas se guardan en UTF-8 precedidas de su
+// longitud en bytes (-1 si son null) y las listas precedidas de su número de elementos (-1 si son null).
+// El formato es big-endian, el orden de bytes por defecto de ByteBuffer.
+// Para leer Review y MovieInfo sin crear los objetos del dominio se pueden usar ReviewView y MovieInfoView.
+public final class DomainCodec {
+    // Versión actual del formato. Un lector solo acepta registros con una versión igual o anterior a la suya.
+    public static final byte VERSION = 1;
+
+    static final byte MOVIE_INFO = 1;
+    static final byte REVIEW = 2;
+    static final byte REVENUE = 3;
+    static final byte MOVIE = 4;
+
+    static final int TYPE_OFFSET = 0;
+    static final int VERSION_OFFSET = 1;
+    static final int PRESENCE_OFFSET = 2;
+    // Tamaño de la cabecera de cada registro. Es público para poder calcular la posición de los registros anidados,
+    // por ejemplo, la de las reseñas dentro de un registro Movie.
+    public static final int HEADER_SIZE = 3;
+
+    static final int NULL_LENGTH = -1;
+
+    // Registro Revenue: [cabecera][movieInfoId:long][budget:double][boxOffice:double]
+    static final int REVENUE_MOVIE_INFO_ID = 1;
+    static final int REVENUE_SIZE = HEADER_SIZE + 3 * Long.BYTES;
+
+    // Registro Movie: [cabecera][MovieInfo][número de reseñas:int][Review...][Revenue][reviewsError:string]
+    static final int MOVIE_MOVIE_INFO = 1;
+    static final int MOVIE_REVIEW_LIST = 2;
+    static final int MOVIE_REVENUE = 4;
+
+    // Los codificadores de UTF-8 no se pueden compartir entre hilos, así que cada hilo reutiliza el suyo.
+    private static final ThreadLocal<CharsetEncoder> UTF_8_ENCODER =
+            ThreadLocal.withInitial(StandardCharsets.UTF_8::newEncoder);
+
+    private DomainCodec() {
+    }
+
+    public static void encode(MovieInfo movieInfo, ByteBuffer buffer) {
+        checkOrder(buffer);
+
+        LocalDate releaseDate = movieInfo.getRelease_date();
+        int presence = (movieInfo.getMovieInfoId() != null ? MovieInfoView.MOVIE_INFO_ID : 0)
+                | (movieInfo.getYear() != null ? MovieInfoView.YEAR : 0)
+                | (releaseDate != null ? MovieInfoView.RELEASE_DATE : 0);
+
+        buffer.put(MOVIE_INFO)
+                .put(VERSION)
+                .put((byte) presence)
+                .putLong(movieInfo.getMovieInfoId() != null ? movieInfo.getMovieInfoId() : 0)
+                .putInt(movieInfo.getYear() != null ? movieInfo.getYear() : CompactMovieInfo.UNKNOWN_YEAR)
+                .putInt(releaseDate != null ? Math.toIntExact(releaseDate.toEpochDay()) : 0);
+        putString(buffer, movieInfo.getName());
+
+        List<String> cast = movieInfo.getCast();
+
+        if(cast == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(cast.size());
+
+            for(String actor : cast)
+                putString(buffer, actor);
+        }
+    }
+
+    public static void encode(Review review, ByteBuffer buffer) {
+        checkOrder(buffer);
+
+        int presence = (review.getReviewId() != null ? ReviewView.REVIEW_ID : 0)
+                | (review.getMovieInfoId() != null ? ReviewView.MOVIE_INFO_ID : 0)
+                | (review.getRating() != null ? ReviewView.RATING : 0);
+
+        buffer.put(REVIEW)
+                .put(VERSION)
+                .put((byte) presence)
+                .putLong(review.getReviewId() != null ? review.getReviewId() : 0)
+                .putLong(review.getMovieInfoId() != null ? review.getMovieInfoId() : 0)
+                .putDouble(review.getRating() != null ? review.getRating() : 0);
+        putString(buffer, review.getComment());
+    }
+
+    public static void encode(Revenue revenue, ByteBuffer buffer) {
+        checkOrder(buffer);
+
+        buffer.put(REVENUE)
+                .put(VERSION)
+                .put((byte) (revenue.getMovieInfoId() != null ? REVENUE_MOVIE_INFO_ID : 0))
+                .putLong(revenue.getMovieInfoId() != null ? revenue.getMovieInfoId() : 0)
+                .putDouble(revenue.getBudget())
+                .putDouble(revenue.getBoxOffice());
+    }
+
+    public static void encode(Movie movie, ByteBuffer buffer) {
+        checkOrder(buffer);
+
+        int presence = (movie.getMovie() != null ? MOVIE_MOVIE_INFO : 0)
+                | (movie.getReviewList() != null ? MOVIE_REVIEW_LIST : 0)
+                | (movie.getRevenue() != null ? MOVIE_REVENUE : 0);
+
+        buffer.put(MOVIE)
+                .put(VERSION)
+                .put((byte) presence);
+
+        if(movie.getMovie() != null)
+            encode(movie.getMovie(), buffer);
+
+        if(movie.getReviewList() != null) {
+            buffer.putInt(movie.getReviewList().size());
+
+            for(Review review : movie.getReviewList())
+                encode(review, buffer);
+        }
+
+        if(movie.getRevenue() != null)
+            encode(movie.getRevenue(), buffer);
+
+        putString(buffer, movie.getReviewsError());
+    }
+
+    // Los métodos "decode*" leen el registro que empieza en la posición actual del buffer y dejan la posición al final
+    // del registro.
+
+    public static MovieInfo decodeMovieInfo(ByteBuffer buffer) {
+        var view = MovieInfoView.wrap(buffer, buffer.position());
+
+        buffer.position(buffer.position() + view.length());
+
+        return view.toMovieInfo();
+    }
+
+    public static Review decodeReview(ByteBuffer buffer) {
+        var view = ReviewView.wrap(buffer, buffer.position());
+
+        buffer.position(buffer.position() + view.length());
+
+        return view.toReview();
+    }
+
+    public static Revenue decodeRevenue(ByteBuffer buffer) {
+        var offset = buffer.position();
+        var presence = readHeader(buffer, offset, REVENUE);
+        var movieInfoId = buffer.getLong(offset + HEADER_SIZE);
+        var budget = buffer.getDouble(offset + HEADER_SIZE + Long.BYTES);
+        var boxOffice = buffer.getDouble(offset + HEADER_SIZE + 2 * Long.BYTES);
+
+        buffer.position(offset + REVENUE_SIZE);
+
+        return new Revenue((presence & REVENUE_MOVIE_INFO_ID) != 0 ? movieInfoId : null, budget, boxOffice);
+    }
+
+    public static Movie decodeMovie(ByteBuffer buffer) {
+        var presence = readHeader(buffer, buffer.position(), MOVIE);
+
+        buffer.position(buffer.position() + HEADER_SIZE);
+
+        var movie = new Movie();
+
+        if((presence & MOVIE_MOVIE_INFO) != 0)
+            movie.setMovie(decodeMovieInfo(buffer));
+
+        if((presence & MOVIE_REVIEW_LIST) != 0) {
+            var size = buffer.getInt();
+            List<Review> reviewList = new ArrayList<>(size);
+
+            for(int i = 0; i < size; i++)
+                reviewList.add(decodeReview(buffer));
+
+            movie.setReviewList(reviewList);
+        }
+
+        if((presence & MOVIE_REVENUE) != 0)
+            movie.setRevenue(decodeRevenue(buffer));
+
+        movie.setReviewsError(readString(buffer, buffer.position()));
+        buffer.position(buffer.position() + stringSize(buffer, buffer.position()));
+
+        return movie;
+    }
+
+    // Los métodos "encodedSize" devuelven el número de bytes que ocupa cada registro, por ejemplo, para reservar un
+    // buffer del tamaño justo.
+
+    public static int encodedSize(MovieInfo movieInfo) {
+        var size = MovieInfoView.NAME + stringSize(movieInfo.getName()) + Integer.BYTES;
+
+        if(movieInfo.getCast() != null)
+            for(String actor : movieInfo.getCast())
+                size += stringSize(actor);
+
+        return size;
+    }
+
+    public static int encodedSize(Review review) {
+        return ReviewView.COMMENT + stringSize(review.getComment());
+    }
+
+    public static int encodedSize(Revenue revenue) {
+        return REVENUE_SIZE;
+    }
+
+    public static int encodedSize(Movie movie) {
+        var size = HEADER_SIZE + stringSize(movie.getReviewsError());
+
+        if(movie.getMovie() != null)
+            size += encodedSize(movie.getMovie());
+
+        if(movie.getReviewList() != null) {
+            size += Integer.BYTES;
+
+            for(Review review : movie.getReviewList())
+                size += encodedSize(review);
+        }
+
+        if(movie.getRevenue() != null)
+            size += REVENUE_SIZE;
+
+        return size;
+    }
+
+    // Comprueba el tipo y la versión de un registro y devuelve su byte de campos presentes.
+    static int readHeader(ByteBuffer buffer, int offset, byte expectedType) {
+        checkOrder(buffer);
+
+        var type = buffer.get(offset + TYPE_OFFSET);
+        var version = buffer.get(offset + VERSION_OFFSET);
+
+        if(type != expectedType)
+            throw new CodecException("Expected record type " + expectedType + " but found " + type + " at offset "
+                    + offset);
+        if(version < 1 || version > VERSION)
+            throw new CodecException("Unsupported format version " + version + " at offset " + offset);
+
+        return buffer.get(offset + PRESENCE_OFFSET);
+    }
+
+    // Escribe la cadena en UTF-8 directamente en el buffer. Como la longitud en bytes no se conoce hasta que se ha
+    // codificado la cadena, primero se deja el hueco para la longitud y después se rellena.
+    static void putString(ByteBuffer buffer, String value) {
+        if(value == null) {
+            buffer.putInt(NULL_LENGTH);
+
+            return;
+        }
+
+        var lengthPosition = buffer.position();
+
+        buffer.position(lengthPosition + Integer.BYTES);
+
+        var encoder = UTF_8_ENCODER.get().reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(value), buffer, true);
+
+        if(result.isUnderflow())
+            result = encoder.flush(buffer);
+
+        if(result.isOverflow())
+            throw new BufferOverflowException();
+        if(result.isError())
+            throw new CodecException("Invalid string at position " + lengthPosition);
+
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+    }
+
+    // Lee la cadena que empieza en "offset" sin modificar la posición del buffer. Los bytes se decodifican desde una
+    // vista del buffer, sin copiarlos antes a un array.
+    static String readString(ByteBuffer buffer, int offset) {
+        var length = buffer.getInt(offset);
+
+        if(length == NULL_LENGTH)
+            return null;
+
+        var start = offset + Integer.BYTES;
+
+        return StandardCharsets.UTF_8.decode(buffer.duplicate().limit(start + length).position(start)).toString();
+    }
+
+    // Número de bytes que ocupa la cadena que empieza en "offset", incluyendo su longitud.
+    static int stringSize(ByteBuffer buffer, int offset) {
+        return Integer.BYTES + Math.max(0, buffer.getInt(offset));
+    }
+
+    static int stringSize(String value) {
+        return Integer.BYTES + (value != null ? utf8Length(value) : 0);
+    }
+
+    private static int utf8Length(String value) {
+        var length = 0;
+
+        for(int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+
+            if(c < 0x80) {
+                length += 1;
+            } else if(c < 0x800) {
+                length += 2;
+            } else if(Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    private static void checkOrder(ByteBuffer buffer) {
+        if(buffer.order() != ByteOrder.BIG_ENDIAN)
+            throw new IllegalArgumentException("DomainCodec requires a big-endian ByteBuffer");
+    }
+}
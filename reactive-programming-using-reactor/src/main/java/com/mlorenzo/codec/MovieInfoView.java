@@ -0,0 +1,113 @@
+package com.mlorenzo.codec;
+
+import com.mlorenzo.domain.MovieInfo;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Vista de solo lectura de un registro MovieInfo codificado con DomainCodec. Cada campo se lee del buffer cuando se
+// pide, así que, por ejemplo, se puede filtrar por año sin decodificar el nombre ni el reparto.
+// La vista no modifica la posición del buffer.
+public final class MovieInfoView {
+    // Bits del byte de campos presentes.
+    static final int MOVIE_INFO_ID = 1;
+    static final int YEAR = 2;
+    static final int RELEASE_DATE = 4;
+
+    // Posiciones de los campos dentro del registro. El reparto va después del nombre, así que su posición depende de la
+    // longitud del nombre.
+    static final int MOVIE_INFO_ID_OFFSET = DomainCodec.HEADER_SIZE;
+    static final int YEAR_OFFSET = MOVIE_INFO_ID_OFFSET + Long.BYTES;
+    static final int RELEASE_DATE_OFFSET = YEAR_OFFSET + Integer.BYTES;
+    static final int NAME = RELEASE_DATE_OFFSET + Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int presence;
+
+    private MovieInfoView(ByteBuffer buffer, int offset, int presence) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.presence = presence;
+    }
+
+    public static MovieInfoView wrap(ByteBuffer buffer, int offset) {
+        return new MovieInfoView(buffer, offset, DomainCodec.readHeader(buffer, offset, DomainCodec.MOVIE_INFO));
+    }
+
+    public boolean hasMovieInfoId() {
+        return (presence & MOVIE_INFO_ID) != 0;
+    }
+
+    public long getMovieInfoId() {
+        return buffer.getLong(offset + MOVIE_INFO_ID_OFFSET);
+    }
+
+    public boolean hasYear() {
+        return (presence & YEAR) != 0;
+    }
+
+    public int getYear() {
+        return buffer.getInt(offset + YEAR_OFFSET);
+    }
+
+    public boolean hasReleaseDate() {
+        return (presence & RELEASE_DATE) != 0;
+    }
+
+    // Fecha de estreno como número de días desde el 1 de enero de 1970.
+    public int getReleaseEpochDay() {
+        return buffer.getInt(offset + RELEASE_DATE_OFFSET);
+    }
+
+    public LocalDate getReleaseDate() {
+        return hasReleaseDate() ? LocalDate.ofEpochDay(getReleaseEpochDay()) : null;
+    }
+
+    public String getName() {
+        return DomainCodec.readString(buffer, offset + NAME);
+    }
+
+    public List<String> getCast() {
+        var position = castOffset();
+        var size = buffer.getInt(position);
+
+        if(size == DomainCodec.NULL_LENGTH)
+            return null;
+
+        List<String> cast = new ArrayList<>(size);
+
+        position += Integer.BYTES;
+
+        for(int i = 0; i < size; i++) {
+            cast.add(DomainCodec.readString(buffer, position));
+            position += DomainCodec.stringSize(buffer, position);
+        }
+
+        return cast;
+    }
+
+    // Número de bytes que ocupa el registro. El siguiente registro empieza en "offset + length()".
+    public int length() {
+        var position = castOffset();
+        var size = buffer.getInt(position);
+
+        position += Integer.BYTES;
+
+        for(int i = 0; i < size; i++)
+            position += DomainCodec.stringSize(buffer, position);
+
+        return position - offset;
+    }
+
+    public MovieInfo toMovieInfo() {
+        return new MovieInfo(hasMovieInfoId() ? getMovieInfoId() : null, getName(), hasYear() ? getYear() : null,
+                getCast(), getReleaseDate());
+    }
+
+    private int castOffset() {
+        return offset + NAME + DomainCodec.stringSize(buffer, offset + NAME);
+    }
+}
@@ -0,0 +1,74 @@
+package com.mlorenzo.codec;
+
+import com.mlorenzo.domain.Review;
+
+import java.nio.ByteBuffer;
+
+// Vista de solo lectura de un registro Review codificado con DomainCodec. Cada campo se lee del buffer cuando se pide,
+// así que se puede consultar, por ejemplo, la valoración de una reseña sin crear el objeto Review ni decodificar su
+// comentario.
+// La vista no modifica la posición del buffer.
+public final class ReviewView {
+    // Bits del byte de campos presentes.
+    static final int REVIEW_ID = 1;
+    static final int MOVIE_INFO_ID = 2;
+    static final int RATING = 4;
+
+    // Posiciones de los campos dentro del registro.
+    static final int REVIEW_ID_OFFSET = DomainCodec.HEADER_SIZE;
+    static final int MOVIE_INFO_ID_OFFSET = REVIEW_ID_OFFSET + Long.BYTES;
+    static final int RATING_OFFSET = MOVIE_INFO_ID_OFFSET + Long.BYTES;
+    static final int COMMENT = RATING_OFFSET + Double.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int presence;
+
+    private ReviewView(ByteBuffer buffer, int offset, int presence) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.presence = presence;
+    }
+
+    public static ReviewView wrap(ByteBuffer buffer, int offset) {
+        return new ReviewView(buffer, offset, DomainCodec.readHeader(buffer, offset, DomainCodec.REVIEW));
+    }
+
+    public boolean hasReviewId() {
+        return (presence & REVIEW_ID) != 0;
+    }
+
+    public long getReviewId() {
+        return buffer.getLong(offset + REVIEW_ID_OFFSET);
+    }
+
+    public boolean hasMovieInfoId() {
+        return (presence & MOVIE_INFO_ID) != 0;
+    }
+
+    public long getMovieInfoId() {
+        return buffer.getLong(offset + MOVIE_INFO_ID_OFFSET);
+    }
+
+    public boolean hasRating() {
+        return (presence & RATING) != 0;
+    }
+
+    public double getRating() {
+        return buffer.getDouble(offset + RATING_OFFSET);
+    }
+
+    public String getComment() {
+        return DomainCodec.readString(buffer, offset + COMMENT);
+    }
+
+    // Número de bytes que ocupa el registro. El siguiente registro empieza en "offset + length()".
+    public int length() {
+        return COMMENT + DomainCodec.stringSize(buffer, offset + COMMENT);
+    }
+
+    public Review toReview() {
+        return new Review(hasReviewId() ? getReviewId() : null, hasMovieInfoId() ? getMovieInfoId() : null,
+                getComment(), hasRating() ? getRating() : null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.mlorenzo.domain;
+
+import lombok.Value;
+import lombok.With;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Versión compacta e inmutable de Movie. Para añadir los ingresos se usa "withRevenue", que devuelve una copia en lugar
+// de modificar una instancia que puede estar compartida.
+@Value
+public class CompactMovie {
+    CompactMovieInfo movie;
+    List<CompactReview> reviewList;
+    @With
+    CompactRevenue revenue;
+
+    public CompactMovie(CompactMovieInfo movie, List<CompactReview> reviewList, CompactRevenue revenue) {
+        this.movie = movie;
+        this.reviewList = reviewList != null ? List.copyOf(reviewList) : List.of();
+        this.revenue = revenue;
+    }
+
+    public static CompactMovie from(Movie movie) {
+        // Una película sin información se guarda con null y una sin lista de reseñas, con una lista vacía.
+        return new CompactMovie(movie.getMovie() != null ? CompactMovieInfo.from(movie.getMovie()) : null,
+                movie.getReviewList() != null
+                        ? movie.getReviewList().stream()
+                                .map(CompactReview::from)
+                                .collect(Collectors.toList())
+                        : List.of(),
+                movie.getRevenue() != null ? CompactRevenue.from(movie.getRevenue()) : null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.mlorenzo.domain;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Versión compacta e inmutable de MovieInfo. Los campos numéricos son de tipos primitivos, la fecha de estreno se guarda
+// como número de días desde el 1 de enero de 1970 ("epoch day") en lugar de como un objeto LocalDate, y el reparto se
+// guarda en una lista inmutable.
+@Value
+public class CompactMovieInfo {
+    // Valor de "releaseEpochDay" cuando no se conoce la fecha de estreno.
+    public static final int NO_RELEASE_DATE = Integer.MIN_VALUE;
+    // Valor de "movieInfoId" cuando no se conoce.
+    public static final long NO_ID = Long.MIN_VALUE;
+    // Valor de "year" cuando no se conoce el año.
+    public static final int UNKNOWN_YEAR = 0;
+
+    long movieInfoId;
+    String name;
+    int year;
+    List<String> cast;
+    int releaseEpochDay;
+
+    public CompactMovieInfo(long movieInfoId, String name, int year, List<String> cast, int releaseEpochDay) {
+        this.movieInfoId = movieInfoId;
+        this.name = name;
+        this.year = year;
+        this.cast = cast != null ? List.copyOf(cast) : List.of();
+        this.releaseEpochDay = releaseEpochDay;
+    }
+
+    public static CompactMovieInfo from(MovieInfo movieInfo) {
+        LocalDate releaseDate = movieInfo.getRelease_date();
+
+        return new CompactMovieInfo(movieInfo.getMovieInfoId() != null ? movieInfo.getMovieInfoId() : NO_ID,
+                movieInfo.getName(), movieInfo.getYear() != null ? movieInfo.getYear() : UNKNOWN_YEAR,
+                movieInfo.getCast(),
+                releaseDate != null ? Math.toIntExact(releaseDate.toEpochDay()) : NO_RELEASE_DATE);
+    }
+
+    public boolean hasMovieInfoId() {
+        return movieInfoId != NO_ID;
+    }
+
+    public boolean hasYear() {
+        return year != UNKNOWN_YEAR;
+    }
+
+    // La fecha de estreno se crea cada vez que se pide. Es null si no se conoce.
+    public LocalDate getReleaseDate() {
+        return releaseEpochDay != NO_RELEASE_DATE ? LocalDate.ofEpochDay(releaseEpochDay) : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mlorenzo.domain;
+
+import lombok.Value;
+
+// Versión compacta e inmutable de Revenue con campos de tipos primitivos.
+@Value
+public class CompactRevenue {
+    // Valor de "movieInfoId" cuando no se conoce.
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    long movieInfoId;
+    double budget;
+    double boxOffice;
+
+    public static CompactRevenue from(Revenue revenue) {
+        return new CompactRevenue(revenue.getMovieInfoId() != null ? revenue.getMovieInfoId() : NO_ID,
+                revenue.getBudget(), revenue.getBoxOffice());
+    }
+
+    public boolean hasMovieInfoId() {
+        return movieInfoId != NO_ID;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mlorenzo.domain;
+
+import lombok.Value;
+
+// Versión compacta e inmutable de Review con campos de tipos primitivos.
+@Value
+public class CompactReview {
+    // Valor de los ids cuando no se conocen.
+    public static final long NO_ID = Long.MIN_VALUE;
+
+    // Son NO_ID si no se conocen.
+    long reviewId;
+    long movieInfoId;
+    String comment;
+    // Es NaN si la reseña no tiene valoración.
+    double rating;
+
+    public static CompactReview from(Review review) {
+        return new CompactReview(review.getReviewId() != null ? review.getReviewId() : NO_ID,
+                review.getMovieInfoId() != null ? review.getMovieInfoId() : NO_ID, review.getComment(),
+                review.getRating() != null ? review.getRating() : Double.NaN);
+    }
+
+    public boolean hasReviewId() {
+        return reviewId != NO_ID;
+    }
+
+    public boolean hasMovieInfoId() {
+        return movieInfoId != NO_ID;
+    }
+
+    public boolean hasRating() {
+        return !Double.isNaN(rating);
+    }
+}
@@ -3,6 +3,7 @@ package com.mlorenzo.domain;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.With;
 
 import java.util.List;
 
@@ -12,11 +13,20 @@ import java.util.List;
 public class Movie {
     private MovieInfo movie;
     private List<Review> reviewList;
+    // Con "withRevenue" se obtiene una copia de la película con los ingresos indicados.
+    @With
     private Revenue revenue;
+    // Mensaje del error que impidió obtener las reseñas de la película. Es null si las reseñas se obtuvieron
+    // correctamente.
+    private String reviewsError;
 
     public Movie(MovieInfo movie, List<Review> reviewList) {
         this.movie = movie;
         this.reviewList = reviewList;
     }
 
+    public Movie(MovieInfo movie, List<Review> reviewList, Revenue revenue) {
+        this(movie, reviewList, revenue, null);
+    }
+
 }
\ No newline at end of file
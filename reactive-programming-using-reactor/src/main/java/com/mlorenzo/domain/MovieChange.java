@@ -0,0 +1,32 @@
+package com.mlorenzo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cambio detectado en el catálogo entre dos ciclos de sondeo. Los eventos ADDED y CHANGED incluyen la película
+// actual, y el evento REMOVED solo incluye el id de la película eliminada.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieChange {
+    private Type type;
+    private Long movieInfoId;
+    private Movie movie;
+
+    public static MovieChange added(Movie movie) {
+        return new MovieChange(Type.ADDED, movie.getMovie().getMovieInfoId(), movie);
+    }
+
+    public static MovieChange changed(Movie movie) {
+        return new MovieChange(Type.CHANGED, movie.getMovie().getMovieInfoId(), movie);
+    }
+
+    public static MovieChange removed(Long movieInfoId) {
+        return new MovieChange(Type.REMOVED, movieInfoId, null);
+    }
+
+    public enum Type {
+        ADDED, CHANGED, REMOVED
+    }
+}
@@ -0,0 +1,35 @@
+package com.mlorenzo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Evento de la versión en streaming de las películas. Por cada película se emite primero un evento MOVIE_INFO con su
+// información, después un evento REVIEWS por cada bloque de reseñas y, por último, un evento END.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieEvent {
+    private Type type;
+    private Long movieInfoId;
+    private MovieInfo movieInfo;
+    private List<Review> reviews;
+
+    public static MovieEvent movieInfo(MovieInfo movieInfo) {
+        return new MovieEvent(Type.MOVIE_INFO, movieInfo.getMovieInfoId(), movieInfo, null);
+    }
+
+    public static MovieEvent reviews(Long movieInfoId, List<Review> reviews) {
+        return new MovieEvent(Type.REVIEWS, movieInfoId, null, reviews);
+    }
+
+    public static MovieEvent end(Long movieInfoId) {
+        return new MovieEvent(Type.END, movieInfoId, null, null);
+    }
+
+    public enum Type {
+        MOVIE_INFO, REVIEWS, END
+    }
+}
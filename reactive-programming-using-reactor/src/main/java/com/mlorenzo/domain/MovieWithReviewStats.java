@@ -0,0 +1,14 @@
+package com.mlorenzo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Versión de Movie con las estadísticas de sus reseñas en lugar de la lista de reseñas.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieWithReviewStats {
+    private MovieInfo movie;
+    private ReviewStats reviewStats;
+}
@@ -0,0 +1,29 @@
+package com.mlorenzo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+// Página de resultados de una paginación por cursor ("keyset"). El cursor es el id del último elemento de la página:
+// la página siguiente se pide con los elementos cuyo id es mayor que él. Es null si no hay más páginas.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Page<T> {
+    private List<T> items;
+    private Long nextCursor;
+
+    // Crea la página a partir de los elementos ordenados por id. Si hay más de "limit" elementos (basta con pedir uno
+    // más), hay página siguiente y su cursor es el id del último elemento de esta página.
+    public static <T> Page<T> of(List<T> items, int limit, ToLongFunction<T> idFunction) {
+        if(items.size() <= limit)
+            return new Page<>(items, null);
+
+        List<T> pageItems = items.subList(0, limit);
+
+        return new Page<>(List.copyOf(pageItems), idFunction.applyAsLong(pageItems.get(limit - 1)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.mlorenzo.domain;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Estadísticas de las reseñas de una película: número de reseñas y media, mínimo y máximo de sus valoraciones. Se
+// calculan a medida que llegan las reseñas con acumuladores de tipos primitivos, así que no hace falta guardar las
+// reseñas en una lista. Las reseñas sin valoración cuentan como reseñas pero no en las valoraciones.
+@Getter
+@ToString
+@EqualsAndHashCode
+public class ReviewStats {
+    private long count;
+    private long ratingCount;
+    private double ratingSum;
+    private double minRating = Double.POSITIVE_INFINITY;
+    private double maxRating = Double.NEGATIVE_INFINITY;
+
+    // Acumula una reseña. Pensado para usarse con el operador o método "collect" de Flux.
+    public void accept(Review review) {
+        count++;
+
+        Double rating = review.getRating();
+
+        if(rating == null)
+            return;
+
+        double value = rating;
+
+        ratingCount++;
+        ratingSum += value;
+        minRating = Math.min(minRating, value);
+        maxRating = Math.max(maxRating, value);
+    }
+
+    // Las siguientes valoraciones son NaN si no hay ninguna reseña con valoración.
+    public double getMeanRating() {
+        return ratingCount == 0 ? Double.NaN : ratingSum / ratingCount;
+    }
+
+    public double getMinRating() {
+        return ratingCount == 0 ? Double.NaN : minRating;
+    }
+
+    public double getMaxRating() {
+        return ratingCount == 0 ? Double.NaN : maxRating;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mlorenzo.exception;
+
+public class CallNotPermittedException extends RuntimeException {
+    String message;
+
+    public CallNotPermittedException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
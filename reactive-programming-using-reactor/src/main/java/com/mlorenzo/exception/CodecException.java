@@ -0,0 +1,10 @@
+package com.mlorenzo.exception;
+
+public class CodecException extends RuntimeException {
+    String message;
+
+    public CodecException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
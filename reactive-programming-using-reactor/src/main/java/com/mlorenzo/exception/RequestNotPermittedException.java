@@ -0,0 +1,10 @@
+package com.mlorenzo.exception;
+
+public class RequestNotPermittedException extends RuntimeException {
+    String message;
+
+    public RequestNotPermittedException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.mlorenzo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contador que solo puede incrementarse. Usa un LongAdder para que los incrementos concurrentes no compitan entre sí.
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+}
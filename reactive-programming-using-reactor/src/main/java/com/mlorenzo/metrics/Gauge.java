@@ -0,0 +1,24 @@
+package com.mlorenzo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Valor que puede subir y bajar, por ejemplo, el número de llamadas en curso.
+public class Gauge {
+    private final AtomicLong value = new AtomicLong();
+
+    public void increment() {
+        value.incrementAndGet();
+    }
+
+    public void decrement() {
+        value.decrementAndGet();
+    }
+
+    public void set(long newValue) {
+        value.set(newValue);
+    }
+
+    public long getValue() {
+        return value.get();
+    }
+}
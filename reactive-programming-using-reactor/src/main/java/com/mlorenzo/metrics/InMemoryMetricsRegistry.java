@@ -0,0 +1,40 @@
+package com.mlorenzo.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registro de métricas en memoria, sin dependencias externas. Las métricas se pueden consultar en cualquier momento
+// a través de sus getters.
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyTimer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    @Override
+    public Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, key -> new Gauge());
+    }
+
+    @Override
+    public LatencyTimer timer(String name) {
+        return timers.computeIfAbsent(name, key -> new LatencyTimer());
+    }
+
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public Map<String, Gauge> getGauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    public Map<String, LatencyTimer> getTimers() {
+        return Collections.unmodifiableMap(timers);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mlorenzo.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histograma de latencias en nanosegundos con cubos logarítmicos. Cada potencia de 2 se divide en 8 cubos, así que el
+// error al calcular un percentil es como mucho del 12,5%. Registrar una latencia solo actualiza un contador del array,
+// sin reservar memoria ni bloquear, y el histograma ocupa siempre lo mismo independientemente del número de valores.
+public class LatencyTimer {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Los valores menores que SUB_BUCKETS tienen un cubo propio. El resto se agrupa por exponente y sub-cubo.
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        var value = Math.max(nanos, 0);
+
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    public void record(Duration duration) {
+        record(duration.toNanos());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Duration getMean() {
+        var currentCount = count.sum();
+
+        return currentCount == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / currentCount);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    // Devuelve el límite superior del cubo en el que cae el percentil indicado (por ejemplo 0.99).
+    public Duration getPercentile(double percentile) {
+        if(percentile < 0 || percentile > 1)
+            throw new IllegalArgumentException("percentile must be in [0, 1]");
+
+        long total = 0;
+        var counts = new long[BUCKETS];
+
+        for(int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        if(total == 0)
+            return Duration.ZERO;
+
+        var rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long accumulated = 0;
+
+        for(int i = 0; i < BUCKETS; i++) {
+            accumulated += counts[i];
+
+            if(accumulated >= rank)
+                return Duration.ofNanos(Math.min(bucketUpperBound(i), maxNanos.get()));
+        }
+
+        return getMax();
+    }
+
+    static int bucketIndex(long value) {
+        if(value < SUB_BUCKETS)
+            return (int) value;
+
+        var exponent = 63 - Long.numberOfLeadingZeros(value);
+        var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if(index < SUB_BUCKETS)
+            return index;
+
+        var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        var subBucket = index % SUB_BUCKETS;
+        var width = 1L << (exponent - SUB_BUCKET_BITS);
+        var lowerBound = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+
+        return lowerBound + width - 1;
+    }
+}
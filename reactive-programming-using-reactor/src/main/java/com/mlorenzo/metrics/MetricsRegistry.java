@@ -0,0 +1,12 @@
+package com.mlorenzo.metrics;
+
+// Registro de métricas. Cada métrica se identifica por su nombre y se crea la primera vez que se solicita. Se puede
+// implementar esta interfaz para enviar las métricas a un sistema externo; por defecto se usa InMemoryMetricsRegistry.
+public interface MetricsRegistry {
+
+    Counter counter(String name);
+
+    Gauge gauge(String name);
+
+    LatencyTimer timer(String name);
+}
@@ -0,0 +1,65 @@
+package com.mlorenzo.metrics;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+// Métricas de las llamadas a un servicio: número de llamadas, errores y cancelaciones, llamadas en curso y latencia
+// desde la subscripción hasta que la llamada termina. Las métricas se obtienen del registro una sola vez, al crear
+// este objeto, para que instrumentar una llamada no tenga que buscarlas cada vez.
+public class ServiceCallMetrics {
+    private final Counter calls;
+    private final Counter errors;
+    private final Counter cancellations;
+    private final Gauge inFlight;
+    private final LatencyTimer latency;
+
+    public ServiceCallMetrics(MetricsRegistry metricsRegistry, String name) {
+        this.calls = metricsRegistry.counter(name + ".calls");
+        this.errors = metricsRegistry.counter(name + ".errors");
+        this.cancellations = metricsRegistry.counter(name + ".cancellations");
+        this.inFlight = metricsRegistry.gauge(name + ".inFlight");
+        this.latency = metricsRegistry.timer(name + ".latency");
+    }
+
+    public <T> Flux<T> instrument(Flux<T> source) {
+        return Flux.defer(() -> {
+            var start = new long[1];
+
+            return source
+                    .doOnSubscribe(subscription -> onSubscribe(start))
+                    .doFinally(signalType -> onFinally(signalType, start[0]));
+        });
+    }
+
+    public <T> Mono<T> instrument(Mono<T> source) {
+        return Mono.defer(() -> {
+            var start = new long[1];
+
+            return source
+                    .doOnSubscribe(subscription -> onSubscribe(start))
+                    .doFinally(signalType -> onFinally(signalType, start[0]));
+        });
+    }
+
+    private void onSubscribe(long[] start) {
+        calls.increment();
+        inFlight.increment();
+        start[0] = System.nanoTime();
+    }
+
+    private void onFinally(SignalType signalType, long start) {
+        inFlight.decrement();
+
+        if(signalType == SignalType.CANCEL) {
+            cancellations.increment();
+
+            return;
+        }
+
+        if(signalType == SignalType.ON_ERROR)
+            errors.increment();
+
+        latency.record(System.nanoTime() - start);
+    }
+}
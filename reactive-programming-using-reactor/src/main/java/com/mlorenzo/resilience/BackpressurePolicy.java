@@ -0,0 +1,128 @@
+package com.mlorenzo.resilience;
+
+import com.mlorenzo.metrics.Counter;
+import com.mlorenzo.metrics.Gauge;
+import com.mlorenzo.metrics.MetricsRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Política de contrapresión para los flujos cuyo productor no espera a que el subscriptor solicite elementos, por
+// ejemplo, los que usan "repeat", "interval" o "delayElements". Los elementos que el subscriptor todavía no ha
+// solicitado se guardan en un buffer de como máximo "capacity" elementos y, cuando se llena, la estrategia decide qué
+// ocurre. Así, un subscriptor lento no hace crecer la memoria sin límite.
+// Nota: El buffer solicita elementos al productor sin límite. Si el productor es síncrono e infinito (por ejemplo,
+// "getAllMoviesWithRepeat" con servicios síncronos), el subscriptor tiene que recibir los elementos en otro hilo, por
+// ejemplo, con el operador "publishOn".
+public class BackpressurePolicy {
+    public enum OverflowStrategy {
+        // El flujo termina con un error de desbordamiento.
+        ERROR,
+        // Se descarta el elemento más antiguo del buffer para guardar el nuevo.
+        DROP_OLDEST,
+        // Se descarta el elemento nuevo.
+        DROP_NEWEST,
+        // Solo se guarda el último elemento. Equivale a DROP_OLDEST con capacidad 1, así que se ignora la capacidad.
+        LATEST
+    }
+
+    private final String name;
+    private final OverflowStrategy strategy;
+    private final int capacity;
+
+    private final Gauge bufferedElements;
+    private final Counter droppedElements;
+    private final Counter overflows;
+
+    public BackpressurePolicy(String name, OverflowStrategy strategy, int capacity, MetricsRegistry metricsRegistry) {
+        if(capacity <= 0)
+            throw new IllegalArgumentException("capacity must be greater than 0");
+
+        this.name = name;
+        this.strategy = strategy;
+        this.capacity = strategy == OverflowStrategy.LATEST ? 1 : capacity;
+
+        var prefix = "backpressure." + name;
+        this.bufferedElements = metricsRegistry.gauge(prefix + ".bufferedElements");
+        this.droppedElements = metricsRegistry.counter(prefix + ".droppedElements");
+        this.overflows = metricsRegistry.counter(prefix + ".overflows");
+    }
+
+    public <T> Flux<T> apply(Flux<T> source) {
+        return Flux.defer(() -> {
+            // Elementos de esta subscripción recibidos del productor y todavía no entregados ni descartados.
+            var pending = new AtomicLong();
+
+            return source
+                    .doOnNext(value -> {
+                        pending.incrementAndGet();
+                        bufferedElements.increment();
+                    })
+                    // Este operador o método guarda los elementos que el subscriptor todavía no ha solicitado y,
+                    // cuando el buffer está lleno, aplica la estrategia indicada. La función recibe el elemento
+                    // descartado.
+                    .onBackpressureBuffer(capacity, value -> onOverflow(pending), bufferOverflowStrategy())
+                    .doOnNext(value -> release(pending))
+                    // Los elementos que quedan en el buffer al cancelar la subscripción o terminar con un error se
+                    // descartan, pero no por la política.
+                    .doFinally(signalType -> releaseRemaining(pending));
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OverflowStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getBufferedElements() {
+        return bufferedElements.getValue();
+    }
+
+    public long getDroppedElements() {
+        return droppedElements.getCount();
+    }
+
+    public long getOverflows() {
+        return overflows.getCount();
+    }
+
+    private void onOverflow(AtomicLong pending) {
+        release(pending);
+
+        // Con la estrategia ERROR el elemento que no cabe también se descarta, pero se cuenta como desbordamiento
+        // porque termina el flujo.
+        if(strategy == OverflowStrategy.ERROR)
+            overflows.increment();
+        else
+            droppedElements.increment();
+    }
+
+    private void release(AtomicLong pending) {
+        pending.decrementAndGet();
+        bufferedElements.decrement();
+    }
+
+    private void releaseRemaining(AtomicLong pending) {
+        for(long remaining = pending.getAndSet(0); remaining > 0; remaining--)
+            bufferedElements.decrement();
+    }
+
+    private BufferOverflowStrategy bufferOverflowStrategy() {
+        switch(strategy) {
+            case ERROR:
+                return BufferOverflowStrategy.ERROR;
+            case DROP_NEWEST:
+                return BufferOverflowStrategy.DROP_LATEST;
+            default:
+                return BufferOverflowStrategy.DROP_OLDEST;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.mlorenzo.resilience;
+
+import com.mlorenzo.exception.CallNotPermittedException;
+import com.mlorenzo.metrics.Counter;
+import com.mlorenzo.metrics.Gauge;
+import com.mlorenzo.metrics.MetricsRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.LongSupplier;
+
+// Cortocircuito para las llamadas a un servicio. Tiene tres estados:
+// - CLOSED: las llamadas pasan y se guarda su resultado en una ventana con las últimas llamadas. Si el porcentaje de
+//   fallos o de llamadas lentas de la ventana supera su umbral, el circuito se abre.
+// - OPEN: las llamadas fallan inmediatamente con CallNotPermittedException sin llegar al servicio. Pasado el tiempo de
+//   espera configurado, el circuito pasa a semiabierto.
+// - HALF_OPEN: se permite un número limitado de llamadas de prueba. Si sus porcentajes no superan los umbrales el
+//   circuito se cierra y, en caso contrario, se vuelve a abrir.
+// Las transiciones de estado se registran como contadores en el registro de métricas y el estado actual como un
+// indicador (0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN).
+@Slf4j
+public class CircuitBreaker {
+    // Valor que devuelve "tryAcquirePermission" cuando no se permite la llamada.
+    static final long NOT_PERMITTED = -1;
+
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final MetricsRegistry metricsRegistry;
+    private final LongSupplier nanoClock;
+
+    // Ventana circular con el resultado de las últimas llamadas.
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int windowIndex;
+    private int windowCount;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    private int halfOpenPermitsIssued;
+    // Número de transiciones de estado. Cada llamada guarda el valor que había al admitirla para ignorar los resultados
+    // y las cancelaciones de las llamadas admitidas en un estado anterior.
+    private long generation;
+
+    private final Gauge stateGauge;
+    private final Counter notPermittedCalls;
+    private final Counter successfulCalls;
+    private final Counter failedCallsCounter;
+    private final Counter slowCallsCounter;
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config, MetricsRegistry metricsRegistry) {
+        this(name, config, metricsRegistry, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, CircuitBreakerConfig config, MetricsRegistry metricsRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.config = config;
+        this.metricsRegistry = metricsRegistry;
+        this.nanoClock = nanoClock;
+        this.failedCalls = new boolean[config.getSlidingWindowSize()];
+        this.slowCalls = new boolean[config.getSlidingWindowSize()];
+
+        var prefix = "circuitBreaker." + name;
+        this.stateGauge = metricsRegistry.gauge(prefix + ".state");
+        this.notPermittedCalls = metricsRegistry.counter(prefix + ".notPermittedCalls");
+        this.successfulCalls = metricsRegistry.counter(prefix + ".successfulCalls");
+        this.failedCallsCounter = metricsRegistry.counter(prefix + ".failedCalls");
+        this.slowCallsCounter = metricsRegistry.counter(prefix + ".slowCalls");
+    }
+
+    public <T> Mono<T> decorate(Mono<T> source) {
+        return Mono.defer(() -> {
+            var callGeneration = tryAcquirePermission();
+
+            if(callGeneration == NOT_PERMITTED)
+                return Mono.error(notPermitted());
+
+            var start = nanoClock.getAsLong();
+
+            return source.doFinally(signalType -> onFinally(signalType, callGeneration, start));
+        });
+    }
+
+    public <T> Flux<T> decorate(Flux<T> source) {
+        return Flux.defer(() -> {
+            var callGeneration = tryAcquirePermission();
+
+            if(callGeneration == NOT_PERMITTED)
+                return Flux.error(notPermitted());
+
+            var start = nanoClock.getAsLong();
+
+            return source.doFinally(signalType -> onFinally(signalType, callGeneration, start));
+        });
+    }
+
+    public synchronized State getState() {
+        // El paso de OPEN a HALF_OPEN se produce al consultar el estado, sin necesidad de ningún temporizador.
+        if(state == State.OPEN && nanoClock.getAsLong() >= openUntilNanos)
+            transitionTo(State.HALF_OPEN);
+
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Devuelve la generación en la que se admite la llamada, o NOT_PERMITTED si no se permite.
+    synchronized long tryAcquirePermission() {
+        switch(getState()) {
+            case CLOSED:
+                return generation;
+            case HALF_OPEN:
+                if(halfOpenPermitsIssued < config.getPermittedCallsInHalfOpenState()) {
+                    halfOpenPermitsIssued++;
+
+                    return generation;
+                }
+
+                return NOT_PERMITTED;
+            default:
+                return NOT_PERMITTED;
+        }
+    }
+
+    synchronized void onResult(long callGeneration, long durationNanos, boolean failed) {
+        var slow = durationNanos >= config.getSlowCallDuration().toNanos();
+
+        if(failed)
+            failedCallsCounter.increment();
+        else
+            successfulCalls.increment();
+
+        if(slow)
+            slowCallsCounter.increment();
+
+        // Un resultado de una llamada admitida en un estado anterior no cuenta en la ventana del estado actual. Por
+        // ejemplo, una llamada que empezó con el circuito cerrado y termina en semiabierto no es una llamada de prueba.
+        if(callGeneration != generation)
+            return;
+
+        record(failed, slow);
+
+        if(state == State.CLOSED) {
+            if(windowCount >= config.getMinimumNumberOfCalls() && thresholdsExceeded())
+                transitionTo(State.OPEN);
+        } else if(windowCount >= config.getPermittedCallsInHalfOpenState()) {
+            transitionTo(thresholdsExceeded() ? State.OPEN : State.CLOSED);
+        }
+    }
+
+    // Una llamada cancelada no cuenta como éxito ni como fallo. Si es una llamada de prueba del estado semiabierto
+    // actual, se devuelve su permiso.
+    synchronized void onCancel(long callGeneration) {
+        if(callGeneration == generation && state == State.HALF_OPEN && halfOpenPermitsIssued > 0)
+            halfOpenPermitsIssued--;
+    }
+
+    private void onFinally(SignalType signalType, long callGeneration, long start) {
+        if(signalType == SignalType.CANCEL)
+            onCancel(callGeneration);
+        else
+            onResult(callGeneration, nanoClock.getAsLong() - start, signalType == SignalType.ON_ERROR);
+    }
+
+    private CallNotPermittedException notPermitted() {
+        notPermittedCalls.increment();
+
+        return new CallNotPermittedException("CircuitBreaker '" + name + "' is " + state + " and does not permit calls");
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if(windowCount == failedCalls.length) {
+            // La ventana está llena: se descarta el resultado más antiguo.
+            if(failedCalls[windowIndex])
+                failedCount--;
+            if(slowCalls[windowIndex])
+                slowCount--;
+        } else {
+            windowCount++;
+        }
+
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+
+        if(failed)
+            failedCount++;
+        if(slow)
+            slowCount++;
+
+        windowIndex = (windowIndex + 1) % failedCalls.length;
+    }
+
+    private boolean thresholdsExceeded() {
+        return (double) failedCount / windowCount >= config.getFailureRateThreshold()
+                || (double) slowCount / windowCount >= config.getSlowCallRateThreshold();
+    }
+
+    private void transitionTo(State newState) {
+        var previousState = state;
+
+        state = newState;
+        generation++;
+        // Cada estado empieza con la ventana vacía para que sus porcentajes solo tengan en cuenta sus propias llamadas.
+        resetWindow();
+        halfOpenPermitsIssued = 0;
+
+        if(newState == State.OPEN)
+            openUntilNanos = nanoClock.getAsLong() + config.getWaitDurationInOpenState().toNanos();
+
+        stateGauge.set(newState.ordinal());
+        metricsRegistry.counter("circuitBreaker." + name + ".transitions." + previousState + "_TO_" + newState)
+                .increment();
+
+        log.info("CircuitBreaker '{}' changed state from {} to {}", name, previousState, newState);
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,43 @@
+package com.mlorenzo.resilience;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+// Configuración de CircuitBreaker.
+@Getter
+@Builder
+public class CircuitBreakerConfig {
+    // Número de llamadas recientes sobre las que se calculan los porcentajes de fallos y de llamadas lentas.
+    @Builder.Default
+    private final int slidingWindowSize = 20;
+
+    // Número mínimo de llamadas en la ventana antes de poder abrir el circuito.
+    @Builder.Default
+    private final int minimumNumberOfCalls = 10;
+
+    // Porcentaje de fallos (entre 0 y 1) a partir del cual se abre el circuito.
+    @Builder.Default
+    private final double failureRateThreshold = 0.5;
+
+    // Porcentaje de llamadas lentas (entre 0 y 1) a partir del cual se abre el circuito.
+    @Builder.Default
+    private final double slowCallRateThreshold = 0.8;
+
+    // Duración a partir de la cual una llamada se considera lenta.
+    @Builder.Default
+    private final Duration slowCallDuration = Duration.ofSeconds(2);
+
+    // Tiempo que el circuito permanece abierto antes de pasar a semiabierto.
+    @Builder.Default
+    private final Duration waitDurationInOpenState = Duration.ofSeconds(5);
+
+    // Número de llamadas de prueba que se permiten en estado semiabierto.
+    @Builder.Default
+    private final int permittedCallsInHalfOpenState = 3;
+
+    public static CircuitBreakerConfig defaults() {
+        return CircuitBreakerConfig.builder().build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.mlorenzo.resilience;
+
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Política de peticiones "hedged" (de cobertura): si la petición principal no ha respondido pasado un tiempo, se lanza
+// una segunda petición idéntica. Gana la primera que responda y la otra se cancela. Los errores de la petición de
+// cobertura se ignoran: solo puede ganar con un resultado.
+// El tiempo de espera puede ser fijo o un percentil de las latencias recientes de las peticiones principales. Para no
+// multiplicar la carga, solo se permite lanzar un porcentaje máximo de peticiones de cobertura ("budgetRatio").
+public class HedgingPolicy {
+    // Número de latencias recientes que se guardan para calcular el percentil.
+    private static final int LATENCY_WINDOW = 1024;
+    // Número mínimo de latencias necesarias para usar el percentil en lugar del tiempo fijo.
+    private static final int MIN_SAMPLES = 20;
+    // Número de latencias nuevas tras las que se vuelve a calcular el percentil. Entre medias se usa el último valor
+    // calculado, así que ordenar la ventana no se hace en cada petición.
+    private static final int RECOMPUTE_INTERVAL = 64;
+    // Número máximo de peticiones de cobertura que se pueden acumular en el presupuesto.
+    static final int MAX_HEDGE_TOKENS = 10;
+
+    private final Duration fixedDelay;
+    private final double percentile;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final AtomicLong latencyCount = new AtomicLong();
+    private final TokenBucket tokens;
+    // Último percentil calculado y número de latencias que había al calcularlo.
+    private volatile Duration percentileDelay;
+    private volatile long percentileSampleCount = -RECOMPUTE_INTERVAL;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    private HedgingPolicy(Duration fixedDelay, double percentile, double budgetRatio) {
+        if(budgetRatio <= 0 || budgetRatio > 1)
+            throw new IllegalArgumentException("budgetRatio must be in (0, 1]");
+
+        this.fixedDelay = fixedDelay;
+        this.percentile = percentile;
+        this.tokens = new TokenBucket(budgetRatio, MAX_HEDGE_TOKENS);
+        this.percentileDelay = fixedDelay;
+    }
+
+    // Lanza la petición de cobertura cuando la principal no ha respondido en el tiempo indicado.
+    public static HedgingPolicy fixedDelay(Duration delay, double budgetRatio) {
+        return new HedgingPolicy(delay, -1, budgetRatio);
+    }
+
+    // Lanza la petición de cobertura cuando la principal supera el percentil indicado (por ejemplo 0.95) de las
+    // latencias recientes. Mientras no hay suficientes latencias se usa "initialDelay".
+    public static HedgingPolicy percentileDelay(double percentile, Duration initialDelay, double budgetRatio) {
+        if(percentile <= 0 || percentile >= 1)
+            throw new IllegalArgumentException("percentile must be in (0, 1)");
+
+        return new HedgingPolicy(initialDelay, percentile, budgetRatio);
+    }
+
+    public <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            requests.increment();
+            tokens.deposit();
+
+            var start = System.nanoTime();
+            // Cada respuesta se marca con el intento que la ha dado para contar solo las peticiones de cobertura que
+            // realmente ganan.
+            Mono<Tuple2<T, Boolean>> primary = Mono.defer(call)
+                    .doOnNext(value -> recordLatency(System.nanoTime() - start))
+                    // Si gana la petición de cobertura, la principal se cancela. Guardamos igualmente el tiempo que
+                    // llevaba esperando para no subestimar el percentil.
+                    .doOnCancel(() -> recordLatency(System.nanoTime() - start))
+                    .map(value -> Tuples.of(value, false));
+            Mono<Tuple2<T, Boolean>> hedged = Mono.delay(currentDelay())
+                    .flatMap(tick -> {
+                        if(!tokens.tryAcquire())
+                            // Sin presupuesto: nos quedamos solo con la petición principal.
+                            return Mono.never();
+
+                        hedgesFired.increment();
+
+                        return Mono.defer(call)
+                                .map(value -> Tuples.of(value, true))
+                                // Un error de la petición de cobertura no puede ganar a la principal, que sigue en
+                                // curso: se ignora y se espera a la principal.
+                                .onErrorResume(ex -> Mono.never());
+                    });
+
+            // El operador "firstWithSignal" se queda con el primer flujo que emita una señal (elemento, error o
+            // finalización) y cancela el otro.
+            return Mono.firstWithSignal(primary, hedged)
+                    .doOnNext(result -> {
+                        if(result.getT2())
+                            hedgesWon.increment();
+                    })
+                    .map(Tuple2::getT1);
+        });
+    }
+
+    public Duration currentDelay() {
+        var count = latencyCount.get();
+
+        if(percentile < 0 || count < MIN_SAMPLES)
+            return fixedDelay;
+
+        if(count - percentileSampleCount >= RECOMPUTE_INTERVAL) {
+            // Si dos peticiones recalculan a la vez, las dos obtienen un valor válido y se queda el último.
+            percentileSampleCount = count;
+            percentileDelay = computePercentile(count);
+        }
+
+        return percentileDelay;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    private Duration computePercentile(long count) {
+        var size = (int) Math.min(count, LATENCY_WINDOW);
+        var snapshot = new long[size];
+
+        // Copia sin bloqueos: alguna posición puede estar sobrescribiéndose, lo cual es aceptable para una estimación.
+        for(int i = 0; i < size; i++)
+            snapshot[i] = latencies[i];
+
+        Arrays.sort(snapshot);
+
+        var index = Math.min(size - 1, (int) Math.ceil(percentile * size) - 1);
+
+        return Duration.ofNanos(snapshot[Math.max(index, 0)]);
+    }
+
+    private void recordLatency(long nanos) {
+        var index = (int) (latencyCount.getAndIncrement() % LATENCY_WINDOW);
+
+        latencies[index] = nanos;
+    }
+}
@@ -0,0 +1,123 @@
+package com.mlorenzo.resilience;
+
+import com.mlorenzo.exception.RequestNotPermittedException;
+import com.mlorenzo.metrics.Counter;
+import com.mlorenzo.metrics.MetricsRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Limitador de llamadas por segundo a un servicio. Funciona como un cubo de fichas que se rellena a un ritmo
+// constante ("permitsPerSecond") y admite ráfagas de hasta "burst" llamadas seguidas.
+// Cuando no hay fichas, la llamada no bloquea ningún hilo: su subscripción se retrasa con un temporizador hasta que le
+// toca. Si la espera necesaria supera "maxWait", la llamada falla inmediatamente con RequestNotPermittedException.
+// Internamente no se guarda el número de fichas sino el instante a partir del cual la siguiente llamada ya no tendría
+// que esperar (algoritmo GCRA), así que basta con un único AtomicLong.
+// Nota: Una llamada cancelada mientras espera no devuelve su ficha.
+public class RateLimiter {
+    private final String name;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+
+    // Instante teórico en el que llegaría la siguiente llamada si todas se hicieran al ritmo configurado.
+    private final AtomicLong theoreticalArrivalTime;
+
+    private final Counter permittedCalls;
+    private final Counter delayedCalls;
+    private final Counter rejectedCalls;
+
+    public RateLimiter(String name, double permitsPerSecond, int burst, Duration maxWait,
+                       MetricsRegistry metricsRegistry) {
+        this(name, permitsPerSecond, burst, maxWait, metricsRegistry, System::nanoTime);
+    }
+
+    RateLimiter(String name, double permitsPerSecond, int burst, Duration maxWait, MetricsRegistry metricsRegistry,
+                LongSupplier nanoClock) {
+        if(permitsPerSecond <= 0)
+            throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+        if(burst <= 0)
+            throw new IllegalArgumentException("burst must be greater than 0");
+
+        this.name = name;
+        this.intervalNanos = Math.round(Duration.ofSeconds(1).toNanos() / permitsPerSecond);
+        this.burstToleranceNanos = (burst - 1) * intervalNanos;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.theoreticalArrivalTime = new AtomicLong(nanoClock.getAsLong());
+
+        var prefix = "rateLimiter." + name;
+        this.permittedCalls = metricsRegistry.counter(prefix + ".permittedCalls");
+        this.delayedCalls = metricsRegistry.counter(prefix + ".delayedCalls");
+        this.rejectedCalls = metricsRegistry.counter(prefix + ".rejectedCalls");
+    }
+
+    public <T> Mono<T> decorate(Mono<T> source) {
+        return Mono.defer(() -> {
+            var waitNanos = reservePermission();
+
+            if(waitNanos < 0)
+                return Mono.error(notPermitted());
+
+            if(waitNanos == 0)
+                return source;
+
+            // Este operador o método retrasa la subscripción al publicador usando un temporizador del planificador
+            // "parallel", así que ningún hilo queda bloqueado durante la espera.
+            return source.delaySubscription(Duration.ofNanos(waitNanos));
+        });
+    }
+
+    public <T> Flux<T> decorate(Flux<T> source) {
+        return Flux.defer(() -> {
+            var waitNanos = reservePermission();
+
+            if(waitNanos < 0)
+                return Flux.error(notPermitted());
+
+            if(waitNanos == 0)
+                return source;
+
+            return source.delaySubscription(Duration.ofNanos(waitNanos));
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Reserva una ficha y devuelve cuánto tiempo hay que esperar para usarla, o -1 si la espera supera "maxWait" (en
+    // ese caso no se reserva nada).
+    long reservePermission() {
+        while(true) {
+            var now = nanoClock.getAsLong();
+            var current = theoreticalArrivalTime.get();
+            var next = Math.max(current, now) + intervalNanos;
+            // Con la tolerancia de ráfaga, la llamada puede adelantarse hasta "burst - 1" intervalos.
+            var waitNanos = Math.max(0, next - intervalNanos - burstToleranceNanos - now);
+
+            if(waitNanos > maxWaitNanos) {
+                rejectedCalls.increment();
+
+                return -1;
+            }
+
+            if(theoreticalArrivalTime.compareAndSet(current, next)) {
+                permittedCalls.increment();
+
+                if(waitNanos > 0)
+                    delayedCalls.increment();
+
+                return waitNanos;
+            }
+        }
+    }
+
+    private RequestNotPermittedException notPermitted() {
+        return new RequestNotPermittedException("RateLimiter '" + name + "' does not permit further calls");
+    }
+}
@@ -0,0 +1,116 @@
+package com.mlorenzo.resilience;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Predicate;
+
+// Presupuesto de reintentos compartido por todas las subscripciones que lo usan. Funciona como un cubo de fichas: cada
+// llamada correcta añade una fracción de ficha ("budgetRatio") y cada reintento gasta una ficha entera. Si no quedan
+// fichas, el error se propaga sin reintentar. De esta forma, durante una caída los reintentos quedan limitados a un
+// porcentaje de las llamadas correctas recientes en lugar de multiplicar el tráfico hacia los servicios.
+// Además, el tiempo de espera entre reintentos crece exponencialmente y se elige al azar entre 0 y ese valor ("full
+// jitter") para que los subscriptores que fallan a la vez no reintenten también a la vez.
+public class RetryBudget {
+    private final int maxAttempts;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final DoubleSupplier random;
+
+    private final TokenBucket tokens;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejectedRetries = new LongAdder();
+
+    // "maxTokens" es el número máximo de reintentos que se pueden acumular y "maxAttempts" el número máximo de
+    // reintentos seguidos de una misma subscripción.
+    public RetryBudget(double budgetRatio, int maxTokens, int maxAttempts, Duration minBackoff, Duration maxBackoff) {
+        this(budgetRatio, maxTokens, maxAttempts, minBackoff, maxBackoff,
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    RetryBudget(double budgetRatio, int maxTokens, int maxAttempts, Duration minBackoff, Duration maxBackoff,
+                DoubleSupplier random) {
+        if(budgetRatio <= 0 || budgetRatio > 1)
+            throw new IllegalArgumentException("budgetRatio must be in (0, 1]");
+        if(maxTokens <= 0)
+            throw new IllegalArgumentException("maxTokens must be greater than 0");
+
+        this.maxAttempts = maxAttempts;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.random = random;
+        // El cubo empieza lleno para que los primeros fallos se puedan reintentar.
+        this.tokens = new TokenBucket(budgetRatio, maxTokens);
+    }
+
+    // Registra una llamada correcta, lo que añade una fracción de ficha al presupuesto.
+    public void recordSuccess() {
+        successes.increment();
+        tokens.deposit();
+    }
+
+    // Crea un Retry para el operador o método "retryWhen" que gasta fichas de este presupuesto. Solo se reintentan los
+    // errores que cumplen "filter", y "beforeRetry" se ejecuta antes de cada reintento. Cuando no se reintenta, se
+    // propaga el error original, igual que con "onRetryExhaustedThrow" y "Exceptions.propagate".
+    public Retry retry(Predicate<? super Throwable> filter, Runnable beforeRetry) {
+        return new Retry() {
+            @Override
+            public Publisher<?> generateCompanion(Flux<RetrySignal> retrySignals) {
+                // Cada elemento emitido por el flujo compañero provoca una nueva subscripción y cada error termina
+                // los reintentos.
+                return retrySignals.concatMap(retrySignal -> {
+                    var failure = retrySignal.failure();
+                    var attempt = retrySignal.totalRetriesInARow();
+
+                    if(!filter.test(failure) || attempt >= maxAttempts)
+                        return Mono.error(failure);
+
+                    if(!tokens.tryAcquire()) {
+                        rejectedRetries.increment();
+
+                        return Mono.error(failure);
+                    }
+
+                    retries.increment();
+                    beforeRetry.run();
+
+                    return Mono.delay(backoff(attempt));
+                });
+            }
+        };
+    }
+
+    // Tiempo de espera antes del reintento número "attempt" (empezando en 0): un valor al azar entre 0 y
+    // min(maxBackoff, minBackoff * 2^attempt).
+    Duration backoff(long attempt) {
+        // Se calcula con double para que "2^attempt" no se desborde.
+        var ceiling = Math.min(maxBackoff.toNanos(), minBackoff.toNanos() * Math.pow(2, attempt));
+
+        return Duration.ofNanos((long) (random.getAsDouble() * ceiling));
+    }
+
+    // Número de reintentos que se pueden hacer ahora mismo.
+    public double getRemainingBudget() {
+        return tokens.getTokens();
+    }
+
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getRejectedRetries() {
+        return rejectedRetries.sum();
+    }
+}
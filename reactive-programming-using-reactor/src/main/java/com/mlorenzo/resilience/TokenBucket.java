@@ -0,0 +1,41 @@
+package com.mlorenzo.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cubo de fichas compartido por RetryBudget y HedgingPolicy. Cada depósito añade una fracción de ficha y cada
+// operación permitida gasta una ficha entera. El cubo empieza lleno y no acumula más de "maxTokens" fichas.
+class TokenBucket {
+    // Las fracciones de ficha se guardan como milésimas para poder usar un AtomicLong.
+    private static final long TOKEN_SCALE = 1000;
+
+    private final long tokensPerDeposit;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    TokenBucket(double tokensPerDeposit, int maxTokens) {
+        this.tokensPerDeposit = Math.round(tokensPerDeposit * TOKEN_SCALE);
+        this.maxTokens = maxTokens * TOKEN_SCALE;
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+
+    void deposit() {
+        tokens.accumulateAndGet(tokensPerDeposit, (current, added) -> Math.min(maxTokens, current + added));
+    }
+
+    // Gasta una ficha entera si la hay.
+    boolean tryAcquire() {
+        while(true) {
+            var current = tokens.get();
+
+            if(current < TOKEN_SCALE)
+                return false;
+
+            if(tokens.compareAndSet(current, current - TOKEN_SCALE))
+                return true;
+        }
+    }
+
+    double getTokens() {
+        return (double) tokens.get() / TOKEN_SCALE;
+    }
+}
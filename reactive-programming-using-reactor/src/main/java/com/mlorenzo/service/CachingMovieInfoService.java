@@ -0,0 +1,68 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Page;
+import com.mlorenzo.util.ReactiveCache;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+// Decorador de MovieInfoService que guarda en caché las películas obtenidas del servicio original. Las búsquedas de
+// películas ya cargadas se resuelven sin llamar al servicio original y, por lo tanto, sin sus retrasos.
+// Solo se guardan en caché las búsquedas por id. El catálogo completo se emite directamente desde el servicio original
+// según lo solicita el subscriptor, sin guardarlo entero en memoria, así que el tamaño máximo de la caché limita de
+// verdad la memoria que ocupa.
+// Nota: Los métodos bloqueantes y los reactivos comparten la misma caché porque devuelven los mismos datos.
+public class CachingMovieInfoService extends MovieInfoService {
+    private final MovieInfoService movieInfoService;
+    private final ReactiveCache<Long, MovieInfo> movieInfoCache;
+
+    public CachingMovieInfoService(MovieInfoService movieInfoService, int maximumSize, Duration timeToLive) {
+        this.movieInfoService = movieInfoService;
+        this.movieInfoCache = new ReactiveCache<>(maximumSize, timeToLive);
+    }
+
+    @Override
+    public Flux<MovieInfo> retrieveMoviesFlux() {
+        return movieInfoService.retrieveMoviesFlux();
+    }
+
+    // Las consultas por año y por reparto, y las páginas del catálogo, se delegan en el servicio original para
+    // aprovechar sus índices, si los tiene.
+    @Override
+    public Flux<MovieInfo> retrieveMoviesByYear(int year) {
+        return movieInfoService.retrieveMoviesByYear(year);
+    }
+
+    @Override
+    public Flux<MovieInfo> retrieveMoviesByCastMember(String castMember) {
+        return movieInfoService.retrieveMoviesByCastMember(castMember);
+    }
+
+    @Override
+    public Mono<Page<MovieInfo>> retrieveMoviesPage(Long startAfterId, int limit) {
+        return movieInfoService.retrieveMoviesPage(startAfterId, limit);
+    }
+
+    @Override
+    public Mono<MovieInfo> retrieveMovieInfoMonoUsingId(long movieId) {
+        return movieInfoCache.get(movieId, movieInfoService::retrieveMovieInfoMonoUsingId);
+    }
+
+    @Override
+    public List<MovieInfo> movieList() {
+        return movieInfoService.movieList();
+    }
+
+    @Override
+    public MovieInfo retrieveMovieUsingId(long movieId) {
+        return movieInfoCache.get(movieId, id -> Mono.fromCallable(() -> movieInfoService.retrieveMovieUsingId(id)))
+                .block();
+    }
+
+    public ReactiveCache<Long, MovieInfo> getMovieInfoCache() {
+        return movieInfoCache;
+    }
+}
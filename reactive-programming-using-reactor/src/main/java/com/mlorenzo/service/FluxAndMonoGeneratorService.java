@@ -1,6 +1,8 @@
 package com.mlorenzo.service;
 
 import com.mlorenzo.exception.ReactorException;
+import com.mlorenzo.resilience.BackpressurePolicy;
+import com.mlorenzo.trace.SignalTracer;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -13,9 +15,19 @@ import java.util.function.Function;
 @Slf4j
 public class FluxAndMonoGeneratorService {
     private final Random random = new Random();
+    // Sustituye al operador "log" en los pipelines. Por defecto no traza nada hasta que se activa cada pipeline.
+    private final SignalTracer signalTracer;
+
+    public FluxAndMonoGeneratorService() {
+        this(SignalTracer.getDefault());
+    }
+
+    public FluxAndMonoGeneratorService(SignalTracer signalTracer) {
+        this.signalTracer = signalTracer;
+    }
 
     public Flux<String> getFluxOfNames() {
-        return Flux.fromIterable(List.of("alex", "ben", "chloe")).log();
+        return Flux.fromIterable(List.of("alex", "ben", "chloe")).transform(signalTracer.flux("getFluxOfNames"));
     }
 
     public Flux<String> getFluxOfNamesWithMapAndFilter(int size) {
@@ -36,7 +48,7 @@ public class FluxAndMonoGeneratorService {
                 .doFinally(signalType -> System.out.println("Inside doFinally: " + signalType))
                 // Este operador o método se ejecuta una vez cuando el publicador emite un error
                 //.doOnError()
-                .log();
+                .transform(signalTracer.flux("getFluxOfNamesWithMapAndFilter"));
     }
 
     public Flux<String> getFluxOfNamesWithFlatMapAndFilter(int size) {
@@ -46,7 +58,7 @@ public class FluxAndMonoGeneratorService {
                 .filter(name -> name.length() > size)
                 // Versión simplificada de la expresión "name -> splitName(name)"
                 .flatMap(this::splitName)
-                .log();
+                .transform(signalTracer.flux("getFluxOfNamesWithFlatMapAndFilter"));
     }
 
     // Nota: El operador "flatMap" trabaja de forma asíncrona y, por lo tanto, no garantiza el orden de los elementos.
@@ -57,7 +69,7 @@ public class FluxAndMonoGeneratorService {
                 .filter(name -> name.length() > size)
                 // Versión simplificada de la expresión "name -> splitNameWitDelay(name)"
                 .flatMap(this::splitNameWitDelay)
-                .log();
+                .transform(signalTracer.flux("getFluxOfNamesWithFlatMapAsyncAndFilter"));
     }
 
     // Nota: El operador "concatMap" trabaja de forma similar al operados "flatMap" pero sí garantiza el orden de
@@ -70,7 +82,7 @@ public class FluxAndMonoGeneratorService {
                 .filter(name -> name.length() > size)
                 // Versión simplificada de la expresión "name -> splitNameWitDelay(name)"
                 .concatMap(this::splitNameWitDelay)
-                .log();
+                .transform(signalTracer.flux("getFluxOfNamesWithConcatMapAndFilter"));
     }
 
     // Nota: En general, se usa "concatMap" cuando el orden de los elementos importa. Si no importa, debe usarse
@@ -83,7 +95,7 @@ public class FluxAndMonoGeneratorService {
                 .filter(name -> name.length() > size)
                 // Versión simplificada de la expresión "name -> splitName(name)"
                 .flatMapMany(this::splitName)
-                .log();
+                .transform(signalTracer.flux("getFluxOfLettersWithFlatMapManyAndFilter"));
     }
 
     // Nota: El operador "transform" nos permite definir una función que agrupe una serie de operaciones de flujos
@@ -99,7 +111,7 @@ public class FluxAndMonoGeneratorService {
                 // Versión simplificada de la expresión "name -> splitName(name)"
                 .flatMap(this::splitName)
                 .defaultIfEmpty("default")
-                .log();
+                .transform(signalTracer.flux("getFluxOfLettersWithTransformAndDefaultIfEmpty"));
     }
 
     public Flux<String> getFluxOfLettersWithTransformAndSwitchIfEmpty(int size) {
@@ -116,7 +128,7 @@ public class FluxAndMonoGeneratorService {
         return Flux.fromIterable(List.of("alex", "ben", "chloe"))
                 .transform(mapAndFilter)
                 .switchIfEmpty(fluxOfDefault)
-                .log();
+                .transform(signalTracer.flux("getFluxOfLettersWithTransformAndSwitchIfEmpty"));
     }
 
     // Nota: En los métodos "concat" y "concatWith", primero se subscribe al primer flujo reactivo y, cuando termine de
@@ -127,21 +139,21 @@ public class FluxAndMonoGeneratorService {
         var fluxOfABC = Flux.just("A", "B", "C");
         var fluxOfDEF = Flux.just("D", "E", "F");
 
-        return Flux.concat(fluxOfABC, fluxOfDEF).log();
+        return Flux.concat(fluxOfABC, fluxOfDEF).transform(signalTracer.flux("getFluxOfStringWithConcat"));
     }
 
     public Flux<String> getFluxOfStringWithConcatWith() {
         var fluxOfABC = Flux.just("A", "B", "C");
         var fluxOfDEF = Flux.just("D", "E", "F");
 
-        return fluxOfABC.concatWith(fluxOfDEF).log();
+        return fluxOfABC.concatWith(fluxOfDEF).transform(signalTracer.flux("getFluxOfStringWithConcatWith"));
     }
 
     public Flux<String> getFluxOfStringWithMonosAndConcatWith() {
         var monoOfA = Mono.just("A");
         var monoOfB = Mono.just("B");
 
-        return monoOfA.concatWith(monoOfB).log();
+        return monoOfA.concatWith(monoOfB).transform(signalTracer.flux("getFluxOfStringWithMonosAndConcatWith"));
     }
 
     // Nota: A diferencia de los métodos "concat" y "concatWith", en los métodos "merge" y "mergeWith" las
@@ -154,7 +166,7 @@ public class FluxAndMonoGeneratorService {
         var fluxOfDEF = Flux.just("D", "E", "F")
                 .delayElements(Duration.ofMillis(125));
 
-        return Flux.merge(fluxOfABC, fluxOfDEF).log();
+        return Flux.merge(fluxOfABC, fluxOfDEF).transform(signalTracer.flux("getFluxOfStringWithMerge"));
     }
 
     public Flux<String> getFluxOfStringWithMergeWith() {
@@ -164,14 +176,14 @@ public class FluxAndMonoGeneratorService {
         var fluxOfDEF = Flux.just("D", "E", "F")
                 .delayElements(Duration.ofMillis(125));
 
-        return fluxOfABC.mergeWith(fluxOfDEF).log();
+        return fluxOfABC.mergeWith(fluxOfDEF).transform(signalTracer.flux("getFluxOfStringWithMergeWith"));
     }
 
     public Flux<String> getFluxOfStringWithMonosAndMergeWith() {
         var monoOfA = Mono.just("A");
         var monoOfB = Mono.just("B");
 
-        return monoOfA.mergeWith(monoOfB).log();
+        return monoOfA.mergeWith(monoOfB).transform(signalTracer.flux("getFluxOfStringWithMonosAndMergeWith"));
     }
 
     // En este método "mergeSequential" las subscripciones a los flujos reactivos se realizan al mismo tiempo pero
@@ -184,7 +196,17 @@ public class FluxAndMonoGeneratorService {
         var fluxOfDEF = Flux.just("D", "E", "F")
                 .delayElements(Duration.ofMillis(125));
 
-        return Flux.mergeSequential(fluxOfABC, fluxOfDEF).log();
+        return Flux.mergeSequential(fluxOfABC, fluxOfDEF)
+                .transform(signalTracer.flux("getFluxOfStringWithMergeSequential"));
+    }
+
+    // El operador o método "interval" emite un número cada "period" sin esperar a que el subscriptor lo solicite y, si
+    // no hay demanda, termina con un error. La política de contrapresión decide qué números se guardan y cuáles se
+    // descartan cuando el subscriptor va más lento.
+    public Flux<Long> getFluxOfTicksWithBackpressurePolicy(Duration period, BackpressurePolicy backpressurePolicy) {
+        return Flux.interval(period)
+                .transform(backpressurePolicy::apply)
+                .transform(signalTracer.flux("getFluxOfTicksWithBackpressurePolicy"));
     }
 
     // En los métodos "zip" y "zipWith", las subscripciones a los flujos reativos se realizan al mismo tiempo.
@@ -193,7 +215,8 @@ public class FluxAndMonoGeneratorService {
         var fluxOfABC = Flux.just("A", "B", "C");
         var fluxOfDEF = Flux.just("D", "E", "F");
 
-        return Flux.zip(fluxOfABC, fluxOfDEF, (first, second) -> first + second).log();
+        return Flux.zip(fluxOfABC, fluxOfDEF, (first, second) -> first + second)
+                .transform(signalTracer.flux("getFluxOfStringWithZip1"));
     }
 
     public Flux<String> getFluxOfStringWithZip2() {
@@ -204,14 +227,15 @@ public class FluxAndMonoGeneratorService {
 
         return Flux.zip(fluxOfABC, fluxOfDEF, fluxOf123, fluxOf456)
                 .map(tuple4 -> tuple4.getT1() + tuple4.getT2() + tuple4.getT3() + tuple4.getT4())
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithZip2"));
     }
 
     public Flux<String> getFluxOfStringWithZipWith() {
         var fluxOfABC = Flux.just("A", "B", "C");
         var fluxOfDEF = Flux.just("D", "E", "F");
 
-        return fluxOfABC.zipWith(fluxOfDEF, (first, second) -> first + second).log();
+        return fluxOfABC.zipWith(fluxOfDEF, (first, second) -> first + second)
+                .transform(signalTracer.flux("getFluxOfStringWithZipWith"));
     }
 
     public Flux<String> getFluxOfStringWithException() {
@@ -220,7 +244,7 @@ public class FluxAndMonoGeneratorService {
                 // Este elemento no llega a emitirse porque, cuando se emite un error, a continaución el publicador
                 // deja de emitir elementos.
                 .concatWith(Flux.just("D"))
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithException"));
     }
 
     public Flux<String> getFluxOfStringWithExceptionAndOnErrorReturn() {
@@ -229,7 +253,7 @@ public class FluxAndMonoGeneratorService {
                 // Se trata de operador o método de recuperación ante errores y nos permite devolver un elemento por
                 // defecto en caso de error.
                 .onErrorReturn("D")
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithExceptionAndOnErrorReturn"));
     }
 
     public Flux<String> getFluxOfStringWithExceptionAndOnErrorResume(Exception e) {
@@ -247,7 +271,7 @@ public class FluxAndMonoGeneratorService {
                     else
                         return Flux.error(ex);
                 })
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithExceptionAndOnErrorResume"));
     }
 
     public Flux<String> getFluxOfStringWithExceptionAndOnErrorContinue() {
@@ -267,7 +291,7 @@ public class FluxAndMonoGeneratorService {
 
                     log.info("Name is: {}", name);
                 })
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithExceptionAndOnErrorContinue"));
     }
 
     public Flux<String> getFluxOfStringWithExceptionAndOnErrorMap() {
@@ -286,7 +310,7 @@ public class FluxAndMonoGeneratorService {
 
                     return new ReactorException(ex, ex.getMessage());
                 })
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithExceptionAndOnErrorMap"));
     }
 
     public Flux<String> getFluxOfStringWithExceptionAndDoOnError() {
@@ -295,7 +319,7 @@ public class FluxAndMonoGeneratorService {
                 // Se trata de operador o método de captura de errores que nos permite realizar una acción o tarea con
                 // la excepción ocurrida. Este operador o método no recupera ante errores, es decir, solo los captura.
                 .doOnError(ex -> log.error("Exception is: ", ex))
-                .log();
+                .transform(signalTracer.flux("getFluxOfStringWithExceptionAndDoOnError"));
     }
 
     public Flux<String> getFluxOfNamesImmutability() {
@@ -308,7 +332,7 @@ public class FluxAndMonoGeneratorService {
     }
 
     public Mono<String> getMonoOfName() {
-        return Mono.just("alex").log();
+        return Mono.just("alex").transform(signalTracer.mono("getMonoOfName"));
     }
 
     public Mono<String> getMonoOfNameWithMapAndFilter(int size) {
@@ -316,7 +340,7 @@ public class FluxAndMonoGeneratorService {
                 // Versión simplificada de la expresión "name -> name.toUpperCase()"
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > size)
-                .log();
+                .transform(signalTracer.mono("getMonoOfNameWithMapAndFilter"));
     }
 
     public Mono<List<String>> getMonoOfNameWithFlatMapAndFilter(int size) {
@@ -326,7 +350,7 @@ public class FluxAndMonoGeneratorService {
                 .filter(name -> name.length() > size)
                 // Versión simplificada de la expresión "name -> splitNameToMono(name)"
                 .flatMap(this::splitNameToMono)
-                .log();
+                .transform(signalTracer.mono("getMonoOfNameWithFlatMapAndFilter"));
     }
 
     public Mono<String> getMonoOfDefaultWithMapFilterAndDefaultIfEmpty(int size) {
@@ -335,7 +359,7 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > size)
                 .defaultIfEmpty("default")
-                .log();
+                .transform(signalTracer.mono("getMonoOfDefaultWithMapFilterAndDefaultIfEmpty"));
     }
 
     public Mono<String> getMonoOfDefaultWithMapFilterAndSwitchIfEmpty(int size) {
@@ -344,14 +368,15 @@ public class FluxAndMonoGeneratorService {
                 .map(String::toUpperCase)
                 .filter(name -> name.length() > size)
                 .switchIfEmpty(Mono.just("default"))
-                .log();
+                .transform(signalTracer.mono("getMonoOfDefaultWithMapFilterAndSwitchIfEmpty"));
     }
 
     public Mono<String> getMonoOfStringWithZipWith() {
         var monoOfA = Mono.just("A");
         var monoOfB = Mono.just("B");
 
-        return monoOfA.zipWith(monoOfB, (first, second) -> first + second).log();
+        return monoOfA.zipWith(monoOfB, (first, second) -> first + second)
+                .transform(signalTracer.mono("getMonoOfStringWithZipWith"));
     }
 
     // Nota: Los mismos operadores o métodos para el manejo de errores que hemos visto para los flujos reactivos de
@@ -363,7 +388,7 @@ public class FluxAndMonoGeneratorService {
                     throw new RuntimeException("Exception occurred!");
                 })
                 .onErrorReturn("abc")
-                .log();
+                .transform(signalTracer.mono("getMonoOfStringWithExceptionAndOnErrorReturn"));
     }
 
     public Mono<Object> getMonoOfStringWithExceptionAndOnErrorMap() {
@@ -372,7 +397,7 @@ public class FluxAndMonoGeneratorService {
                     throw new RuntimeException("Exception occurred!");
                 })
                 .onErrorMap(ex -> new ReactorException(ex, ex.getMessage()))
-                .log();
+                .transform(signalTracer.mono("getMonoOfStringWithExceptionAndOnErrorMap"));
     }
 
     public Mono<String> getMonoOfStringWithExceptionAndOnErrorContinue(String name) {
@@ -387,7 +412,7 @@ public class FluxAndMonoGeneratorService {
 
                     log.info("Name is: {}", nameValue);
                 })
-                .log();
+                .transform(signalTracer.mono("getMonoOfStringWithExceptionAndOnErrorContinue"));
     }
 
     private Mono<List<String>> splitNameToMono(String name) {
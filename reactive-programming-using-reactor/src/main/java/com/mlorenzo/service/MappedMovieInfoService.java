@@ -0,0 +1,228 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.codec.DomainCodec;
+import com.mlorenzo.codec.MovieInfoView;
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Page;
+import com.mlorenzo.store.MappedSegmentStore;
+import com.mlorenzo.store.OffHeapLongIndex;
+import com.mlorenzo.store.PostingListIndex;
+import com.mlorenzo.store.SortedLongSet;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Implementación de MovieInfoService que lee las películas de un MappedSegmentStore en lugar de devolver una lista fija.
+// Las películas se guardan codificadas con DomainCodec y se emiten directamente desde la proyección del fichero
+// respetando la contrapresión.
+// Las búsquedas por id usan un índice fuera del heap del id de la película a la ubicación de su registro, que se
+// reconstruye al crear el servicio con un único recorrido del almacén. Si se guarda varias veces una película con el
+// mismo id, el índice apunta a la última y es la única versión que se emite.
+// Las consultas por año y por reparto usan índices invertidos de cada año y de cada nombre del reparto a los ids de sus
+// películas. Se construyen en el mismo recorrido que el índice por id y se actualizan al guardar cada película.
+// La paginación por cursor usa un conjunto ordenado con los ids de las películas: el inicio de cada página se busca
+// con una búsqueda binaria, así que cada página cuesta lo mismo sea cual sea su posición en el catálogo.
+public class MappedMovieInfoService extends MovieInfoService {
+    private final MappedSegmentStore store;
+    private final OffHeapLongIndex idIndex;
+    private final PostingListIndex<Integer> yearIndex = new PostingListIndex<>();
+    private final PostingListIndex<String> castIndex = new PostingListIndex<>();
+    private final SortedLongSet movieIds = new SortedLongSet();
+
+    public MappedMovieInfoService(MappedSegmentStore store) {
+        this(store, 1024);
+    }
+
+    // "expectedMovies" es el número de películas esperado, para dimensionar el índice sin tener que agrandarlo.
+    public MappedMovieInfoService(MappedSegmentStore store, int expectedMovies) {
+        this.store = store;
+        this.idIndex = new OffHeapLongIndex(1, expectedMovies);
+
+        store.forEach((location, buffer, offset) -> index(MovieInfoView.wrap(buffer, offset), location));
+    }
+
+    // El almacén y los índices se actualizan juntos para que los índices siempre apunten a la última versión.
+    public synchronized void save(MovieInfo movieInfo) {
+        var location = store.append(DomainCodec.encodedSize(movieInfo),
+                buffer -> DomainCodec.encode(movieInfo, buffer));
+
+        index(store.get(location, MovieInfoView::wrap), location);
+    }
+
+    // El almacén guarda todas las versiones de cada película, así que en lugar de recorrerlo se recorren los ids del
+    // conjunto ordenado y se lee la última versión de cada uno. Las películas se emiten ordenadas por id.
+    @Override
+    public Flux<MovieInfo> retrieveMoviesFlux() {
+        return Flux.defer(() -> {
+            // Solo se recorren los ids que había al subscribirse.
+            var snapshot = movieIds.snapshot();
+
+            return Flux.generate(() -> 0, (index, sink) -> {
+                if(index < snapshot.size())
+                    sink.next(retrieveIndexed(snapshot.get(index)));
+                else
+                    sink.complete();
+
+                return index + 1;
+            });
+        });
+    }
+
+    @Override
+    public Flux<MovieInfo> retrieveMoviesByYear(int year) {
+        return Flux.defer(() -> retrieveIndexed(yearIndex.get(year),
+                view -> view.hasYear() && view.getYear() == year));
+    }
+
+    @Override
+    public Flux<MovieInfo> retrieveMoviesByCastMember(String castMember) {
+        var normalizedCastMember = normalizeCastMember(castMember);
+
+        return Flux.defer(() -> retrieveIndexed(castIndex.get(normalizedCastMember),
+                view -> normalizedCast(view).contains(normalizedCastMember)));
+    }
+
+    @Override
+    public Mono<Page<MovieInfo>> retrieveMoviesPage(Long startAfterId, int limit) {
+        if(limit <= 0)
+            return Mono.error(new IllegalArgumentException("limit must be greater than 0"));
+
+        return Mono.fromSupplier(() -> {
+            var snapshot = movieIds.snapshot();
+            var from = startAfterId == null ? 0 : snapshot.indexAfter(startAfterId);
+            // Se lee una película más para saber si hay página siguiente.
+            var to = (int) Math.min(snapshot.size(), (long) from + limit + 1);
+            List<MovieInfo> movieInfoList = new ArrayList<>(to - from);
+
+            for(int index = from; index < to; index++)
+                movieInfoList.add(retrieveIndexed(snapshot.get(index)));
+
+            return Page.of(movieInfoList, limit, MovieInfo::getMovieInfoId);
+        });
+    }
+
+    @Override
+    public Mono<MovieInfo> retrieveMovieInfoMonoUsingId(long movieId) {
+        // Si el supplier devuelve null, el Mono termina sin emitir ningún elemento.
+        return Mono.fromSupplier(() -> retrieveIndexed(movieId));
+    }
+
+    @Override
+    public List<MovieInfo> movieList() {
+        return retrieveMoviesFlux().collectList().block();
+    }
+
+    @Override
+    public MovieInfo retrieveMovieUsingId(long movieId) {
+        return retrieveIndexed(movieId);
+    }
+
+    public OffHeapLongIndex getIdIndex() {
+        return idIndex;
+    }
+
+    private MovieInfo retrieveIndexed(long movieId) {
+        var location = idIndex.get(movieId, 0);
+
+        if(location == OffHeapLongIndex.MISSING)
+            return null;
+
+        return store.get(location, (buffer, offset) -> MovieInfoView.wrap(buffer, offset).toMovieInfo());
+    }
+
+    public SortedLongSet getMovieIds() {
+        return movieIds;
+    }
+
+    public PostingListIndex<Integer> getYearIndex() {
+        return yearIndex;
+    }
+
+    public PostingListIndex<String> getCastIndex() {
+        return castIndex;
+    }
+
+    // Emite las películas de la lista de ids según se van solicitando. Los índices invertidos no se limpian cuando una
+    // película se vuelve a guardar con otro año u otro reparto, así que se comprueba que la última versión de cada
+    // película sigue cumpliendo la condición. Cada id está una sola vez en cada lista.
+    private Flux<MovieInfo> retrieveIndexed(PostingListIndex.PostingList movieIds, Predicate<MovieInfoView> matches) {
+        if(movieIds == null)
+            return Flux.empty();
+
+        // Solo se recorren los ids que había al subscribirse.
+        var size = movieIds.size();
+
+        return Flux.generate(() -> 0, (index, sink) -> {
+            while(index < size) {
+                var location = idIndex.get(movieIds.get(index++), 0);
+                var movieInfo = store.get(location, (buffer, offset) -> {
+                    var view = MovieInfoView.wrap(buffer, offset);
+
+                    return matches.test(view) ? view.toMovieInfo() : null;
+                });
+
+                if(movieInfo != null) {
+                    sink.next(movieInfo);
+
+                    return index;
+                }
+            }
+
+            sink.complete();
+
+            return index;
+        });
+    }
+
+    private synchronized void index(MovieInfoView view, long location) {
+        if(!view.hasMovieInfoId())
+            return;
+
+        var movieId = view.getMovieInfoId();
+        var previousLocation = idIndex.get(movieId, 0);
+        var previous = previousLocation != OffHeapLongIndex.MISSING
+                ? store.get(previousLocation, MovieInfoView::wrap)
+                : null;
+
+        idIndex.put(movieId, location);
+
+        if(previous == null)
+            movieIds.add(movieId);
+
+        // Solo se añade el id a los índices invertidos en los que no estaba ya por una versión anterior. Si la película
+        // ya se había guardado, el id puede estar en la lista por una versión más antigua (por ejemplo, al pasar de
+        // 2005 a 2008 y volver a 2005), así que se comprueba que no esté antes de añadirlo. En la primera versión no
+        // hace falta recorrer la lista.
+        if(view.hasYear() && (previous == null || !previous.hasYear() || previous.getYear() != view.getYear()))
+            addToIndex(yearIndex, view.getYear(), movieId, previous == null);
+
+        Set<String> previousCast = previous != null ? normalizedCast(previous) : Set.of();
+
+        for(String castMember : normalizedCast(view))
+            if(!previousCast.contains(castMember))
+                addToIndex(castIndex, castMember, movieId, previous == null);
+    }
+
+    private static <K> void addToIndex(PostingListIndex<K> index, K key, long movieId, boolean firstVersion) {
+        if(firstVersion)
+            index.add(key, movieId);
+        else
+            index.addIfAbsent(key, movieId);
+    }
+
+    private static Set<String> normalizedCast(MovieInfoView view) {
+        List<String> cast = view.getCast();
+        Set<String> normalizedCast = new HashSet<>();
+
+        if(cast != null)
+            for(String castMember : cast)
+                normalizedCast.add(normalizeCastMember(castMember));
+
+        return normalizedCast;
+    }
+}
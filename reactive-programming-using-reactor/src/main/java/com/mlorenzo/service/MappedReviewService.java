@@ -0,0 +1,164 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.codec.DomainCodec;
+import com.mlorenzo.codec.ReviewView;
+import com.mlorenzo.domain.Review;
+import com.mlorenzo.store.MappedSegmentStore;
+import com.mlorenzo.store.OffHeapLongIndex;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Implementación de ReviewService que lee las reseñas de un MappedSegmentStore en lugar de devolver una lista fija.
+// Las reseñas se guardan codificadas con DomainCodec y se emiten directamente desde la proyección del fichero
+// respetando la contrapresión.
+// Para obtener las reseñas de una película se usa un índice fuera del heap del id de la película al rango de registros
+// de sus reseñas (ubicación del primero, número de registros y ubicación del último), que se reconstruye al crear el
+// servicio con un único recorrido del almacén. El rango solo sirve si las reseñas de cada película se guardan seguidas,
+// como ocurre en una carga inicial ordenada por película. Si una película tiene reseñas separadas por las de otras
+// películas, sus reseñas se encadenan: un segundo índice fuera del heap guarda, para la ubicación de cada una de sus
+// reseñas, la ubicación de la siguiente. Así sus reseñas se leen una a una sin recorrer el resto del almacén y sin
+// crear objetos por cada reseña indexada.
+public class MappedReviewService extends ReviewService {
+    // Posiciones de los valores del índice.
+    private static final int FIRST_LOCATION = 0;
+    private static final int COUNT = 1;
+    private static final int LAST_LOCATION = 2;
+
+    private final MappedSegmentStore store;
+    private final OffHeapLongIndex rangeIndex;
+    // Ubicación de la siguiente reseña de la misma película. Solo tiene las reseñas de las películas dispersas, así que
+    // una película es dispersa si la ubicación de su primera reseña está en este índice.
+    private final OffHeapLongIndex nextLocationIndex;
+    // Película de la última reseña indexada. Solo se usa dentro de "index", que es "synchronized".
+    private long lastMovieInfoId = OffHeapLongIndex.MISSING;
+
+    public MappedReviewService(MappedSegmentStore store) {
+        this(store, 1024);
+    }
+
+    // "expectedMovies" es el número de películas con reseñas esperado, para dimensionar el índice sin tener que
+    // agrandarlo.
+    public MappedReviewService(MappedSegmentStore store, int expectedMovies) {
+        this.store = store;
+        this.rangeIndex = new OffHeapLongIndex(3, expectedMovies);
+        this.nextLocationIndex = new OffHeapLongIndex(1, expectedMovies);
+
+        store.forEach((location, buffer, offset) -> {
+            var view = ReviewView.wrap(buffer, offset);
+
+            if(view.hasMovieInfoId())
+                index(view.getMovieInfoId(), location);
+            else
+                lastMovieInfoId = OffHeapLongIndex.MISSING;
+        });
+    }
+
+    // El almacén y el índice se actualizan juntos para que el orden de las reseñas en el índice sea el del almacén.
+    public synchronized void save(Review review) {
+        var location = store.append(DomainCodec.encodedSize(review), buffer -> DomainCodec.encode(review, buffer));
+
+        if(review.getMovieInfoId() != null)
+            index(review.getMovieInfoId(), location);
+        else
+            // Una reseña sin película rompe la continuidad del rango de la película anterior.
+            lastMovieInfoId = OffHeapLongIndex.MISSING;
+    }
+
+    @Override
+    public List<Review> retrieveReviews(long movieInfoId) {
+        return retrieveReviewsFlux(movieInfoId).collectList().block();
+    }
+
+    @Override
+    public Flux<Review> retrieveReviewsFlux(long movieInfoId) {
+        return Flux.defer(() -> {
+            var count = rangeIndex.get(movieInfoId, COUNT);
+
+            if(count == OffHeapLongIndex.MISSING)
+                return Flux.empty();
+
+            var firstLocation = rangeIndex.get(movieInfoId, FIRST_LOCATION);
+
+            // Los enlaces de la cadena se guardan antes de actualizar el número de registros, así que hay enlaces para
+            // todos los registros contados.
+            if(nextLocationIndex.containsKey(firstLocation))
+                return readChain(firstLocation, count);
+
+            return store.read(firstLocation, count, MappedReviewService::decode);
+        });
+    }
+
+    @Override
+    public Flux<Review> retrieveReviewsFluxByMovieIds(Collection<Long> movieInfoIds) {
+        // Cada película del lote se busca en el índice. Los ids repetidos solo se buscan una vez.
+        return Flux.defer(() -> Flux.fromIterable(new LinkedHashSet<>(movieInfoIds)))
+                .concatMap(this::retrieveReviewsFlux);
+    }
+
+    public OffHeapLongIndex getRangeIndex() {
+        return rangeIndex;
+    }
+
+    public OffHeapLongIndex getNextLocationIndex() {
+        return nextLocationIndex;
+    }
+
+    // El operador o método "generate" lee una reseña cada vez que el subscriptor solicita un elemento y sigue el enlace
+    // a la siguiente. Solo se leen las reseñas que había al empezar, igual que en las películas con un rango.
+    private Flux<Review> readChain(long firstLocation, long count) {
+        return Flux.generate(() -> new long[] {firstLocation, count}, (chain, sink) -> {
+            if(chain[1] > 0) {
+                sink.next(store.get(chain[0], MappedReviewService::decode));
+                chain[1]--;
+
+                if(chain[1] > 0)
+                    chain[0] = nextLocationIndex.get(chain[0], 0);
+            } else
+                sink.complete();
+
+            return chain;
+        });
+    }
+
+    private static Review decode(ByteBuffer buffer, int offset) {
+        return ReviewView.wrap(buffer, offset).toReview();
+    }
+
+    private synchronized void index(long movieInfoId, long location) {
+        var count = rangeIndex.get(movieInfoId, COUNT);
+
+        if(count == OffHeapLongIndex.MISSING) {
+            rangeIndex.put(movieInfoId, location, 1, location);
+            lastMovieInfoId = movieInfoId;
+
+            return;
+        }
+
+        var firstLocation = rangeIndex.get(movieInfoId, FIRST_LOCATION);
+        var scattered = nextLocationIndex.containsKey(firstLocation);
+
+        if(!scattered && movieInfoId != lastMovieInfoId) {
+            // La película deja de ser un rango: se encadenan los registros del rango antes de enlazar el nuevo.
+            long[] previousLocation = {OffHeapLongIndex.MISSING};
+
+            store.forEach(firstLocation, count, (rangeLocation, buffer, offset) -> {
+                if(previousLocation[0] != OffHeapLongIndex.MISSING)
+                    nextLocationIndex.put(previousLocation[0], rangeLocation);
+
+                previousLocation[0] = rangeLocation;
+            });
+            scattered = true;
+        }
+
+        if(scattered)
+            nextLocationIndex.put(rangeIndex.get(movieInfoId, LAST_LOCATION), location);
+
+        rangeIndex.set(movieInfoId, LAST_LOCATION, location);
+        rangeIndex.set(movieInfoId, COUNT, count + 1);
+        lastMovieInfoId = movieInfoId;
+    }
+}
@@ -1,22 +1,68 @@
 package com.mlorenzo.service;
 
 import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Page;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 
 import static com.mlorenzo.util.CommonUtil.delay;
 
 public class MovieInfoService {
 
+    // Número de películas del catálogo.
+    private static final int CATALOG_SIZE = 3;
+
+    // El operador o método "generate" crea una película cada vez que el subscriptor solicita un elemento, en lugar de
+    // crear la lista completa antes de emitir la primera. Así, un subscriptor que solo solicita 2 elementos solo
+    // provoca la lectura de 2 películas y nunca hay en memoria más películas que las solicitadas.
     public Flux<MovieInfo> retrieveMoviesFlux(){
-        var movieInfoList = List.of(new MovieInfo(100l, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
-                new MovieInfo(101L,"The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
-                new MovieInfo(102L,"Dark Knight Rises", 2008, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")));
+        return Flux.generate(() -> 0, (index, sink) -> {
+            if(index < CATALOG_SIZE)
+                sink.next(readMovieInfo(index));
+            else
+                sink.complete();
+
+            return index + 1;
+        });
+    }
+
+    // Películas de un año. Esta implementación recorre todo el catálogo; las subclases con índices la sustituyen.
+    public Flux<MovieInfo> retrieveMoviesByYear(int year){
+        return retrieveMoviesFlux()
+                .filter(movieInfo -> movieInfo.getYear() != null && movieInfo.getYear() == year);
+    }
 
-        return Flux.fromIterable(movieInfoList);
+    // Películas en cuyo reparto aparece el nombre indicado, sin distinguir mayúsculas y minúsculas. Esta implementación
+    // recorre todo el catálogo; las subclases con índices la sustituyen.
+    public Flux<MovieInfo> retrieveMoviesByCastMember(String castMember){
+        var normalizedCastMember = normalizeCastMember(castMember);
+
+        return retrieveMoviesFlux()
+                .filter(movieInfo -> movieInfo.getCast() != null && movieInfo.getCast().stream()
+                        .anyMatch(name -> normalizeCastMember(name).equals(normalizedCastMember)));
+    }
+
+    // Página de como máximo "limit" películas ordenadas por id, empezando por la siguiente a "startAfterId". Si
+    // "startAfterId" es null, empieza por la primera película. El cursor de la página devuelta es el "startAfterId"
+    // de la página siguiente. Esta implementación recorre y ordena todo el catálogo en cada página; las subclases con
+    // índices la sustituyen.
+    public Mono<Page<MovieInfo>> retrieveMoviesPage(Long startAfterId, int limit){
+        if(limit <= 0)
+            return Mono.error(new IllegalArgumentException("limit must be greater than 0"));
+
+        return retrieveMoviesFlux()
+                .filter(movieInfo -> movieInfo.getMovieInfoId() != null
+                        && (startAfterId == null || movieInfo.getMovieInfoId() > startAfterId))
+                .sort(Comparator.comparing(MovieInfo::getMovieInfoId))
+                // Se pide una película más para saber si hay página siguiente.
+                .take(limit + 1)
+                .collectList()
+                .map(movieInfoList -> Page.of(movieInfoList, limit, MovieInfo::getMovieInfoId));
     }
 
     public Mono<MovieInfo> retrieveMovieInfoMonoUsingId(long movieId){
@@ -38,4 +84,23 @@ public class MovieInfoService {
         return new MovieInfo(movieId, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
     }
 
-}
\ No newline at end of file
+    // Lee la película de la posición indicada del catálogo. Es estático para que un mock de esta clase que llame al
+    // método real de "retrieveMoviesFlux" siga leyendo el catálogo real.
+    static MovieInfo readMovieInfo(int index){
+        switch(index) {
+            case 0:
+                return new MovieInfo(100L, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+            case 1:
+                return new MovieInfo(101L,"The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18"));
+            case 2:
+                return new MovieInfo(102L,"Dark Knight Rises", 2008, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"));
+            default:
+                throw new IndexOutOfBoundsException("index " + index);
+        }
+    }
+
+    // Forma con la que se comparan los nombres del reparto.
+    static String normalizeCastMember(String castMember){
+        return castMember == null ? "" : castMember.trim().toLowerCase(Locale.ROOT);
+    }
+}
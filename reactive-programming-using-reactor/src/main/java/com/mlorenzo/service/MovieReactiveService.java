@@ -1,62 +1,204 @@
 package com.mlorenzo.service;
 
 import com.mlorenzo.domain.Movie;
+import com.mlorenzo.domain.MovieChange;
+import com.mlorenzo.domain.MovieEvent;
 import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.MovieWithReviewStats;
+import com.mlorenzo.domain.Page;
 import com.mlorenzo.domain.Revenue;
 import com.mlorenzo.domain.Review;
+import com.mlorenzo.domain.ReviewStats;
+import com.mlorenzo.exception.CallNotPermittedException;
 import com.mlorenzo.exception.MovieException;
 import com.mlorenzo.exception.NetworkException;
 import com.mlorenzo.exception.ServiceException;
+import com.mlorenzo.metrics.Counter;
+import com.mlorenzo.metrics.MetricsRegistry;
+import com.mlorenzo.metrics.ServiceCallMetrics;
+import com.mlorenzo.resilience.BackpressurePolicy;
+import com.mlorenzo.resilience.CircuitBreaker;
+import com.mlorenzo.resilience.HedgingPolicy;
+import com.mlorenzo.resilience.RateLimiter;
+import com.mlorenzo.resilience.RetryBudget;
+import com.mlorenzo.trace.SignalTracer;
+import com.mlorenzo.util.SingleFlight;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class MovieReactiveService {
     private final MovieInfoService movieInfoService;
     private final ReviewService reviewService;
     private final RevenueService revenueService;
+    private final MovieReactiveServiceConfig config;
+    // Sustituye al operador "log" en los pipelines. Por defecto no traza nada hasta que se activa cada pipeline.
+    private final SignalTracer signalTracer;
+    private final SingleFlight<Long, Movie> movieWithRevenueFlights = new SingleFlight<>();
+
+    // Métricas de las llamadas a los servicios.
+    private final ServiceCallMetrics moviesFluxMetrics;
+    private final ServiceCallMetrics moviesPageMetrics;
+    private final ServiceCallMetrics movieInfoMonoMetrics;
+    private final ServiceCallMetrics movieListMetrics;
+    private final ServiceCallMetrics movieUsingIdMetrics;
+    private final ServiceCallMetrics reviewsFluxMetrics;
+    private final ServiceCallMetrics reviewsBatchMetrics;
+    private final ServiceCallMetrics revenueMonoMetrics;
+    private final ServiceCallMetrics revenueMetrics;
+    private final Counter retries;
+    private final Counter repeats;
+    private final Counter failedPollingCycles;
 
     public MovieReactiveService(MovieInfoService movieInfoService, ReviewService reviewService,
                                 RevenueService revenueService) {
+        this(movieInfoService, reviewService, revenueService, MovieReactiveServiceConfig.defaults());
+    }
+
+    public MovieReactiveService(MovieInfoService movieInfoService, ReviewService reviewService,
+                                RevenueService revenueService, MovieReactiveServiceConfig config) {
         this.movieInfoService = movieInfoService;
         this.reviewService = reviewService;
         this.revenueService = revenueService;
+        // Si no se indica ninguna configuración, se usa la configuración por defecto.
+        this.config = config != null ? config : MovieReactiveServiceConfig.defaults();
+
+        this.signalTracer = this.config.getSignalTracer();
+
+        MetricsRegistry metricsRegistry = this.config.getMetricsRegistry();
+        this.moviesFluxMetrics = new ServiceCallMetrics(metricsRegistry, "movieInfoService.retrieveMoviesFlux");
+        this.moviesPageMetrics = new ServiceCallMetrics(metricsRegistry, "movieInfoService.retrieveMoviesPage");
+        this.movieInfoMonoMetrics = new ServiceCallMetrics(metricsRegistry,
+                "movieInfoService.retrieveMovieInfoMonoUsingId");
+        this.movieListMetrics = new ServiceCallMetrics(metricsRegistry, "movieInfoService.movieList");
+        this.movieUsingIdMetrics = new ServiceCallMetrics(metricsRegistry, "movieInfoService.retrieveMovieUsingId");
+        this.reviewsFluxMetrics = new ServiceCallMetrics(metricsRegistry, "reviewService.retrieveReviewsFlux");
+        this.reviewsBatchMetrics = new ServiceCallMetrics(metricsRegistry,
+                "reviewService.retrieveReviewsFluxByMovieIds");
+        this.revenueMonoMetrics = new ServiceCallMetrics(metricsRegistry, "revenueService.getRevenueMono");
+        this.revenueMetrics = new ServiceCallMetrics(metricsRegistry, "revenueService.getRevenue");
+        this.retries = metricsRegistry.counter("movieReactiveService.retries");
+        this.repeats = metricsRegistry.counter("movieReactiveService.repeats");
+        this.failedPollingCycles = metricsRegistry.counter("movieReactiveService.failedPollingCycles");
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return config.getMetricsRegistry();
     }
 
     public Flux<Movie> getAllMovies() {
-        return movieInfoService.retrieveMoviesFlux()
-                .flatMap(movieInfo -> {
-                    Mono<List<Review>> monoReviewsList = reviewService.retrieveReviewsFlux(movieInfo.getMovieInfoId())
-                            .collectList();
+        return retrieveMovies()
+                .transform(this::assembleMovies)
+                // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
+                .onErrorMap(ex -> {
+                    log.error("Exception is: ", ex);
 
-                    return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
+                    return new MovieException(ex.getMessage());
                 })
+                .transform(this::applyBackpressurePolicy)
+                .transform(signalTracer.flux("getAllMovies"));
+    }
+
+    // Versión de "getAllMovies" que evita hacer una llamada al servicio de reseñas por cada película. Las películas se
+    // agrupan en lotes de como máximo "batchSize" elementos, o lo que se haya acumulado cuando pase el tiempo
+    // "maxWait", y se hace una sola llamada al servicio de reseñas por lote.
+    public Flux<Movie> getAllMoviesBatched(int batchSize, Duration maxWait) {
+        return retrieveMovies()
+                // Este operador o método emite una lista cuando se alcanza el tamaño indicado o cuando transcurre el
+                // tiempo indicado, lo que ocurra primero.
+                .bufferTimeout(batchSize, maxWait)
+                // Los lotes se procesan con la concurrencia de la configuración, pero siempre con "flatMapSequential"
+                // para que las películas se emitan en el mismo orden en que llegan, sea cual sea la opción "ordered".
+                .flatMapSequential(this::getMoviesWithReviews, config.getConcurrency(), config.getPrefetch())
                 // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
                 .onErrorMap(ex -> {
                     log.error("Exception is: ", ex);
 
                     return new MovieException(ex.getMessage());
                 })
-                .log();
+                .transform(signalTracer.flux("getAllMoviesBatched"));
     }
 
-    public Flux<Movie> getAllMoviesWithRetry() {
-        return movieInfoService.retrieveMoviesFlux()
-                .flatMap(movieInfo -> {
-                    Mono<List<Review>> monoReviewsList = reviewService.retrieveReviewsFlux(movieInfo.getMovieInfoId())
-                            .collectList();
+    // Versión en streaming de "getAllMovies". En lugar de acumular todas las reseñas de una película en una lista,
+    // se emite primero la información de la película y después sus reseñas en bloques de como máximo "chunkSize"
+    // elementos. De esta forma, la memoria usada por cada película depende del tamaño del bloque y no del número de
+    // reseñas, y los primeros datos llegan sin esperar a la última reseña.
+    public Flux<MovieEvent> getAllMoviesStreaming(int chunkSize) {
+        return retrieveMovies()
+                .transform(fluxOfMovieInfo -> flatMapWithConfig(fluxOfMovieInfo,
+                        movieInfo -> streamMovie(movieInfo, chunkSize)))
+                // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
+                .onErrorMap(ex -> {
+                    log.error("Exception is: ", ex);
 
-                    return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
+                    return new MovieException(ex.getMessage());
+                })
+                .transform(signalTracer.flux("getAllMoviesStreaming"));
+    }
+
+    // Versión de "getAllMovies" para los consumidores que solo necesitan el número de reseñas y sus valoraciones media,
+    // mínima y máxima. Las reseñas se van acumulando según llegan en un objeto ReviewStats, así que no se guarda
+    // ninguna reseña.
+    public Flux<MovieWithReviewStats> getAllMoviesWithReviewStats() {
+        return retrieveMovies()
+                .transform(fluxOfMovieInfo -> flatMapWithConfig(fluxOfMovieInfo, movieInfo ->
+                        retrieveReviews(movieInfo.getMovieInfoId())
+                                // Este operador o método acumula los elementos en un contenedor mutable, en este
+                                // caso, un ReviewStats nuevo por cada película.
+                                .collect(ReviewStats::new, ReviewStats::accept)
+                                .map(reviewStats -> new MovieWithReviewStats(movieInfo, reviewStats))))
+                // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
+                .onErrorMap(ex -> {
+                    log.error("Exception is: ", ex);
+
+                    return new MovieException(ex.getMessage());
+                })
+                .transform(signalTracer.flux("getAllMoviesWithReviewStats"));
+    }
+
+    // Versión paginada de "getAllMovies". Devuelve como máximo "limit" películas ordenadas por id, empezando por la
+    // siguiente a "startAfterId" (null para la primera página), junto con el cursor de la página siguiente, que es null
+    // en la última página. Si un consumidor se desconecta, puede continuar desde el último cursor que recibió en lugar
+    // de volver a empezar.
+    public Mono<Page<Movie>> getMoviesPage(Long startAfterId, int limit) {
+        return moviesPageMetrics.instrument(movieInfoService.retrieveMoviesPage(startAfterId, limit))
+                .flatMap(page -> Flux.fromIterable(page.getItems())
+                        // Las películas de la página se emiten siempre en el orden de sus ids, así que se usa
+                        // "flatMapSequential" sea cual sea la configuración del servicio.
+                        .flatMapSequential(movieInfo -> retrieveReviews(movieInfo.getMovieInfoId())
+                                .collectList()
+                                .map(reviewsList -> new Movie(movieInfo, reviewsList)),
+                                config.getConcurrency(), config.getPrefetch())
+                        .collectList()
+                        .map(movies -> new Page<>(movies, page.getNextCursor())))
+                // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
+                .onErrorMap(ex -> {
+                    log.error("Exception is: ", ex);
+
+                    return new MovieException(ex.getMessage());
                 })
+                .transform(signalTracer.mono("getMoviesPage"));
+    }
+
+    public Flux<Movie> getAllMoviesWithRetry() {
+        return retrieveMovies()
+                .transform(this::assembleMovies)
                 // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
                 .onErrorMap(ex -> {
                     log.error("Exception is: ", ex);
@@ -66,18 +208,18 @@ public class MovieReactiveService {
                 // Este operador o método se utiliza para reintetar indefinidamente el envío de un elemento que
                 // ocasionó un error o excepción. Se suele usar pasándole un número determinado de reintentos.
                 //.retry()
-                .retry(3)
-                .log();
+                //.retry(3)
+                // Usamos el equivalente a "retry(3)" con el operador o método "retryWhen" para poder contar los
+                // reintentos en las métricas.
+                .retryWhen(Retry.max(3)
+                        .doBeforeRetry(retrySignal -> retries.increment())
+                        .onRetryExhaustedThrow((retrySpec, retrySignal) -> Exceptions.propagate(retrySignal.failure())))
+                .transform(signalTracer.flux("getAllMoviesWithRetry"));
     }
 
     public Flux<Movie> getAllMoviesWithRetryWhen() {
-        return movieInfoService.retrieveMoviesFlux()
-                .flatMap(movieInfo -> {
-                    Mono<List<Review>> monoReviewsList = reviewService.retrieveReviewsFlux(movieInfo.getMovieInfoId())
-                            .collectList();
-
-                    return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
-                })
+        return retrieveMovies()
+                .transform(this::assembleMovies)
                 // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
                 .onErrorMap(ex -> {
                     log.error("Exception is: ", ex);
@@ -89,18 +231,30 @@ public class MovieReactiveService {
                 })
                 // Este operador o método es una versión más avanzada que el operador o método "retry" ya que nos
                 // permite configurar los reintentos pasándole un objeto de una clase que extienda de Retry.
-                .retryWhen(getRetryBackoffSpec())
-                .log();
+                .retryWhen(getRetry(ex -> ex instanceof MovieException))
+                .transform(signalTracer.flux("getAllMoviesWithRetryWhen"));
     }
 
-    public Flux<Movie> getAllMoviesWithRepeat() {
-        return movieInfoService.retrieveMoviesFlux()
-                .flatMap(movieInfo -> {
-                    Mono<List<Review>> monoReviewsList = reviewService.retrieveReviewsFlux(movieInfo.getMovieInfoId())
-                            .collectList();
+    // Versión de "getAllMoviesWithRetryWhen" en la que los reintentos se hacen por película. Si falla la obtención de
+    // las reseñas de una película, solo se vuelven a pedir sus reseñas, sin volver a subscribirse al catálogo ni
+    // repetir las películas ya emitidas. Si tras los reintentos sigue fallando, la película se emite con una lista de
+    // reseñas vacía y el mensaje del error en "reviewsError" en lugar de terminar el flujo con un error.
+    public Flux<Movie> getAllMoviesWithPerMovieRetry() {
+        return retrieveMovies()
+                .transform(fluxOfMovieInfo -> flatMapWithConfig(fluxOfMovieInfo, this::getMovieWithRetriedReviews))
+                // Los errores del catálogo siguen terminando el flujo. Los convertimos en nuestra excepción de negocio
+                // MovieException.
+                .onErrorMap(ex -> {
+                    log.error("Exception is: ", ex);
 
-                    return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
+                    return new MovieException(ex.getMessage());
                 })
+                .transform(signalTracer.flux("getAllMoviesWithPerMovieRetry"));
+    }
+
+    public Flux<Movie> getAllMoviesWithRepeat() {
+        return retrieveMovies()
+                .transform(this::assembleMovies)
                 // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
                 .onErrorMap(ex -> {
                     log.error("Exception is: ", ex);
@@ -112,23 +266,63 @@ public class MovieReactiveService {
                 })
                 // Este operador o método es una versión más avanzada que el operador o método "retry" ya que nos
                 // permite configurar los reintentos pasándole un objeto de una clase que extienda de Retry.
-                .retryWhen(getRetryBackoffSpec())
+                .retryWhen(getRetry(ex -> ex instanceof MovieException))
                 // Este operador o método se utiliza para repetir subscripciones al publicador siempre y cuando el
                 // publicador no emita ningún elemento que sea un error o excepción. En caso contrario, la repetición
                 // de la subscripción se cancelará. En este caso, el número de repeticiones es infinito porque no le
                 // estamos pasando un número de repetciones.
-                .repeat()
-                .log();
+                // Usamos la versión con un BooleanSupplier que siempre devuelve true para poder contar las repeticiones
+                // en las métricas.
+                .repeat(() -> {
+                    repeats.increment();
+
+                    return true;
+                })
+                .transform(this::applyBackpressurePolicy)
+                .transform(signalTracer.flux("getAllMoviesWithRepeat"));
     }
 
-    public Flux<Movie> getAllMoviesWithRepeatNTimes(long repeatTimes) {
-        return movieInfoService.retrieveMoviesFlux()
-                .flatMap(movieInfo -> {
-                    Mono<List<Review>> monoReviewsList = reviewService.retrieveReviewsFlux(movieInfo.getMovieInfoId())
-                            .collectList();
+    // Alternativa a "getAllMoviesWithRepeat" para vigilar el catálogo. En lugar de repetir sin pausa y volver a emitir
+    // todas las películas, se obtiene el catálogo cada "interval" y solo se emiten las películas añadidas, cambiadas o
+    // eliminadas desde el ciclo anterior. En el primer ciclo todas las películas se emiten como añadidas.
+    // Para detectar los cambios se guarda la última versión de cada película y se compara con "equals", que incluye sus
+    // reseñas y sus ingresos. Cada subscripción tiene sus propias películas guardadas.
+    // Si un ciclo falla después de los reintentos, se registra el error y se espera al siguiente ciclo sin terminar el
+    // flujo. Las películas guardadas no cambian, así que el siguiente ciclo correcto emite los cambios pendientes.
+    public Flux<MovieChange> getAllMoviesWithPolling(Duration interval) {
+        return Flux.defer(() -> {
+            Map<Long, Movie> previousMovies = new HashMap<>();
 
-                    return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
-                })
+            // Usamos el operador o método "defer" para que cada ciclo vuelva a llamar a los servicios. Se llama
+            // directamente a los servicios en lugar de a "getAllMovies" para no aplicar dos veces la política de
+            // contrapresión ni el trazador, y para conservar el tipo de los errores.
+            return Mono.defer(() -> retrieveMovies()
+                            .transform(this::assembleMovies)
+                            .collectList())
+                    // Igual que en "getAllMoviesWithPerMovieRetry", solo se reintentan los errores de red.
+                    .retryWhen(getRetry(ex -> ex instanceof NetworkException))
+                    .onErrorResume(ex -> {
+                        log.error("Polling cycle failed: ", ex);
+                        failedPollingCycles.increment();
+
+                        return Mono.empty();
+                    })
+                    .flatMapIterable(movies -> detectChanges(previousMovies, movies))
+                    // Este operador o método repite la subscripción cuando el flujo anterior termina. A diferencia de
+                    // "repeat", cada repetición espera a que el flujo compañero emita un elemento, así que retrasando
+                    // sus elementos conseguimos la pausa entre ciclos. Como un ciclo empieza cuando termina el
+                    // anterior, nunca se solapan dos ciclos.
+                    .repeatWhen(completions -> completions
+                            .doOnNext(completion -> repeats.increment())
+                            .delayElements(interval));
+        })
+                .transform(this::applyBackpressurePolicy)
+                .transform(signalTracer.flux("getAllMoviesWithPolling"));
+    }
+
+    public Flux<Movie> getAllMoviesWithRepeatNTimes(long repeatTimes) {
+        return retrieveMovies()
+                .transform(this::assembleMovies)
                 // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
                 .onErrorMap(ex -> {
                     log.error("Exception is: ", ex);
@@ -140,17 +334,22 @@ public class MovieReactiveService {
                 })
                 // Este operador o método es una versión más avanzada que el operador o método "retry" ya que nos
                 // permite configurar los reintentos pasándole un objeto de una clase que extienda de Retry.
-                .retryWhen(getRetryBackoffSpec())
+                .retryWhen(getRetry(ex -> ex instanceof MovieException))
                 // Este operador o método se utiliza para repetir subscripciones al publicador siempre y cuando el
                 // publicador no emita ningún elemento que sea un error o excepción. En caso contrario, la repetición
                 // de la subscripción se cancelará. En este caso, el número de repeticiones es "repeatTimes".
-                .repeat(repeatTimes)
-                .log();
+                .repeat(repeatTimes, () -> {
+                    repeats.increment();
+
+                    return true;
+                })
+                .transform(this::applyBackpressurePolicy)
+                .transform(signalTracer.flux("getAllMoviesWithRepeatNTimes"));
     }
 
     public Mono<Movie> getMovieByIdWithZipWith(Long movieId) {
-        Mono<MovieInfo> monoOfMovieInfo = movieInfoService.retrieveMovieInfoMonoUsingId(movieId);
-        Mono<List<Review>> monoOfListReviews = reviewService.retrieveReviewsFlux(movieId).collectList();
+        Mono<MovieInfo> monoOfMovieInfo = retrieveMovieInfo(movieId);
+        Mono<List<Review>> monoOfListReviews = retrieveReviews(movieId).collectList();
 
         // Primera forma
         /*return monoOfMovieInfo.zipWith(monoOfListReviews)
@@ -158,42 +357,304 @@ public class MovieReactiveService {
 
         // Segunda forma
         // Versión simplificada de la expresión "(movieInfo, listReviews) -> new Movie(movieInfo, listReviews)"
-        return monoOfMovieInfo.zipWith(monoOfListReviews, Movie::new).log();
+        return monoOfMovieInfo.zipWith(monoOfListReviews, Movie::new)
+                .transform(signalTracer.mono("getMovieByIdWithZipWith"));
     }
 
     public Mono<Movie> getMovieByIdWithFlatMap(Long movieId) {
-        return movieInfoService.retrieveMovieInfoMonoUsingId(movieId)
+        return retrieveMovieInfo(movieId)
                 .flatMap(movieInfo -> {
-                    Mono<List<Review>> monoReviewsList = reviewService.retrieveReviewsFlux(movieInfo.getMovieInfoId())
+                    Mono<List<Review>> monoReviewsList = retrieveReviews(movieInfo.getMovieInfoId())
                             .collectList();
 
                     return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
                 })
-                .log();
+                .transform(signalTracer.mono("getMovieByIdWithFlatMap"));
+    }
+
+    // Versión en streaming de "getMovieByIdWithFlatMap".
+    public Flux<MovieEvent> getMovieByIdStreaming(Long movieId, int chunkSize) {
+        return retrieveMovieInfo(movieId)
+                .flatMapMany(movieInfo -> streamMovie(movieInfo, chunkSize))
+                .transform(signalTracer.flux("getMovieByIdStreaming"));
     }
 
     public Mono<Movie> getMovieByIdWithRevenue(Long movieId) {
-        Mono<MovieInfo> monoOfMovieInfo = movieInfoService.retrieveMovieInfoMonoUsingId(movieId);
-        Mono<List<Review>> monoOfListReviews = reviewService.retrieveReviewsFlux(movieId).collectList();
+        Mono<MovieInfo> monoOfMovieInfo = retrieveMovieInfo(movieId);
+        Mono<List<Review>> monoOfListReviews = retrieveReviews(movieId).collectList();
+
+        // El método "getRevenueMono" es la versión no bloqueante de "getRevenue": el retraso de la llamada se simula
+        // con un temporizador, así que no hace falta derivar la tarea a otro hilo con el operador o método
+        // "subscribeOn" y ningún hilo queda bloqueado mientras se espera la respuesta.
+        Mono<Revenue> monoOfRevenue = retrieveRevenue(movieId,
+                revenueMonoMetrics.instrument(revenueService.getRevenueMono(movieId)));
+
+        return monoOfMovieInfo.zipWith(monoOfListReviews)
+                .map(tuple2 -> new Movie(tuple2.getT1(), tuple2.getT2()))
+                // Creamos una copia con los ingresos en lugar de modificar la película con "setRevenue".
+                .zipWith(monoOfRevenue, Movie::withRevenue)
+                .transform(signalTracer.mono("getMovieByIdWithRevenue"));
+    }
+
+    // Versión de "getAllMovies" que obtiene las películas con el método bloqueante "movieList".
+    public Flux<Movie> getAllMoviesWithBlockingMovieList() {
+        return offload(movieListMetrics, movieInfoService::movieList)
+                .flatMapIterable(movieInfoList -> movieInfoList)
+                .transform(this::assembleMovies)
+                // Si se produce alguna excepción, la convertimos en nuestra excepción de negocio MovieException.
+                .onErrorMap(ex -> {
+                    log.error("Exception is: ", ex);
+
+                    return new MovieException(ex.getMessage());
+                })
+                .transform(signalTracer.flux("getAllMoviesWithBlockingMovieList"));
+    }
+
+    // Versión de "getMovieByIdWithFlatMap" que obtiene la película con el método bloqueante "retrieveMovieUsingId".
+    public Mono<Movie> getMovieByIdWithBlockingLookup(Long movieId) {
+        return offload(movieUsingIdMetrics, () -> movieInfoService.retrieveMovieUsingId(movieId))
+                .flatMap(movieInfo -> {
+                    Mono<List<Review>> monoReviewsList = retrieveReviews(movieInfo.getMovieInfoId())
+                            .collectList();
 
-        // El método "getRevenue" es un método bloqueante porque tiene un "delay" o retraso añadido para simular una
-        // llamada a otro servicio a través de la red o un acceso a la base de datos. Por esta razón, envolvemos el
-        // resultado de dicho método en un flujo reactivo Mono para poder usar a continuación el operador o método
-        // "subscribeOn" y, de esta forma, derivar la ejecución de esta tarea bloqueante a otro hilo para evitar
-        // bloquear el hilo que inició la subscripción al publicador y que ejecuta su pipeline.
-        Mono<Revenue> monoOfRevenue = Mono.fromCallable(() -> revenueService.getRevenue(movieId))
-                .subscribeOn(Schedulers.boundedElastic());
+                    return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
+                })
+                .transform(signalTracer.mono("getMovieByIdWithBlockingLookup"));
+    }
+
+    // Versión de "getMovieByIdWithRevenue" que obtiene los ingresos con el método bloqueante "getRevenue".
+    public Mono<Movie> getMovieByIdWithBlockingRevenue(Long movieId) {
+        Mono<MovieInfo> monoOfMovieInfo = retrieveMovieInfo(movieId);
+        Mono<List<Review>> monoOfListReviews = retrieveReviews(movieId).collectList();
+        Mono<Revenue> monoOfRevenue = retrieveRevenue(movieId,
+                offload(revenueMetrics, () -> revenueService.getRevenue(movieId)));
 
         return monoOfMovieInfo.zipWith(monoOfListReviews)
                 .map(tuple2 -> new Movie(tuple2.getT1(), tuple2.getT2()))
-                .zipWith(monoOfRevenue, (movie, revenue) -> {
-                    movie.setRevenue(revenue);
+                // Creamos una copia con los ingresos en lugar de modificar la película con "setRevenue".
+                .zipWith(monoOfRevenue, Movie::withRevenue)
+                .transform(signalTracer.mono("getMovieByIdWithBlockingRevenue"));
+    }
+
+    // Versión de "getMovieByIdWithRevenue" en la que las llamadas concurrentes para una misma película comparten una
+    // única obtención de la información, las reseñas y los ingresos. Si un subscriptor cancela su subscripción, la
+    // obtención compartida sigue adelante para el resto de subscriptores.
+    // Nota: Todos los subscriptores agrupados reciben la misma instancia de Movie.
+    public Mono<Movie> getMovieByIdWithRevenueCoalesced(Long movieId) {
+        return movieWithRevenueFlights.execute(movieId, () -> getMovieByIdWithRevenue(movieId));
+    }
+
+    // Número de llamadas a "getMovieByIdWithRevenueCoalesced" que se han agrupado con otra ya en curso.
+    public long getCoalescedCalls() {
+        return movieWithRevenueFlights.getCoalescedCalls();
+    }
+
+    // Envolvemos el resultado de una llamada bloqueante en un flujo reactivo Mono para poder usar a continuación el
+    // operador o método "subscribeOn" y, de esta forma, derivar la ejecución de esta tarea bloqueante al planificador
+    // configurado para evitar bloquear el hilo que inició la subscripción al publicador y que ejecuta su pipeline.
+    private <T> Mono<T> offload(ServiceCallMetrics metrics, Callable<T> blockingCall) {
+        return metrics.instrument(Mono.fromCallable(blockingCall)
+                .subscribeOn(config.getBlockingScheduler()));
+    }
+
+    private Flux<MovieInfo> retrieveMovies() {
+        return recordSuccess(moviesFluxMetrics.instrument(movieInfoService.retrieveMoviesFlux()));
+    }
+
+    private Flux<Review> retrieveReviews(long movieInfoId) {
+        CircuitBreaker circuitBreaker = config.getReviewCircuitBreaker();
+        // Las llamadas que no permite el cortocircuito no llegan a ReviewService y, por lo tanto, tampoco cuentan en
+        // sus métricas.
+        Flux<Review> fluxOfReviews = circuitBreaker(circuitBreaker,
+                recordSuccess(reviewsFluxMetrics.instrument(reviewService.retrieveReviewsFlux(movieInfoId))));
+        // El limitador se aplica fuera del cortocircuito, así que el tiempo que una llamada espera a su ficha no cuenta
+        // como duración de la llamada y una ráfaga que frenamos nosotros no abre el cortocircuito por llamadas lentas.
+        fluxOfReviews = rateLimit(config.getReviewRateLimiter(), fluxOfReviews);
+
+        Function<Long, Flux<Review>> fallback = config.getReviewFallback();
+
+        if(circuitBreaker == null || fallback == null)
+            return fluxOfReviews;
+
+        // Este operador o método sustituye el error por otro flujo. Solo se usa la alternativa cuando el cortocircuito
+        // no permite la llamada; el resto de errores se propagan igual que antes.
+        return fluxOfReviews.onErrorResume(CallNotPermittedException.class, ex -> fallback.apply(movieInfoId));
+    }
+
+    // Versión de "retrieveReviews" para un lote de películas. Usa el mismo cortocircuito y el mismo limitador porque
+    // las llamadas van al mismo servicio.
+    private Flux<Review> retrieveReviews(Collection<Long> movieInfoIds) {
+        CircuitBreaker circuitBreaker = config.getReviewCircuitBreaker();
+        Flux<Review> fluxOfReviews = rateLimit(config.getReviewRateLimiter(), circuitBreaker(circuitBreaker,
+                recordSuccess(reviewsBatchMetrics.instrument(
+                        reviewService.retrieveReviewsFluxByMovieIds(movieInfoIds)))));
+        Function<Long, Flux<Review>> fallback = config.getReviewFallback();
+
+        if(circuitBreaker == null || fallback == null)
+            return fluxOfReviews;
+
+        return fluxOfReviews.onErrorResume(CallNotPermittedException.class, ex -> Flux.fromIterable(movieInfoIds)
+                .concatMap(fallback));
+    }
+
+    // Aplica el cortocircuito y el limitador de RevenueService, si se han configurado, a una llamada que obtiene los
+    // ingresos de una película. Igual que en "retrieveReviews", el limitador se aplica fuera del cortocircuito.
+    private Mono<Revenue> retrieveRevenue(Long movieId, Mono<Revenue> revenueCall) {
+        CircuitBreaker circuitBreaker = config.getRevenueCircuitBreaker();
+        Mono<Revenue> monoOfRevenue = rateLimit(config.getRevenueRateLimiter(),
+                circuitBreaker(circuitBreaker, revenueCall));
+        Function<Long, Mono<Revenue>> fallback = config.getRevenueFallback();
+
+        if(circuitBreaker == null || fallback == null)
+            return monoOfRevenue;
+
+        return monoOfRevenue.onErrorResume(CallNotPermittedException.class, ex -> fallback.apply(movieId));
+    }
+
+    private Flux<Movie> assembleMovies(Flux<MovieInfo> fluxOfMovieInfo) {
+        return flatMapWithConfig(fluxOfMovieInfo, movieInfo -> {
+            Mono<List<Review>> monoReviewsList = retrieveReviews(movieInfo.getMovieInfoId())
+                    .collectList();
+
+            return monoReviewsList.map(reviewsList -> new Movie(movieInfo, reviewsList));
+        });
+    }
+
+    private Mono<Movie> getMovieWithRetriedReviews(MovieInfo movieInfo) {
+        // Usamos el operador o método "defer" para que cada reintento vuelva a llamar al servicio de reseñas.
+        return Flux.defer(() -> retrieveReviews(movieInfo.getMovieInfoId()))
+                .collectList()
+                // Igual que en "getAllMoviesWithRetryWhen", solo se reintentan los errores de red.
+                .retryWhen(getRetry(ex -> ex instanceof NetworkException))
+                .map(reviewsList -> new Movie(movieInfo, reviewsList))
+                .onErrorResume(ex -> {
+                    log.error("Reviews of movie {} could not be retrieved: ", movieInfo.getMovieInfoId(), ex);
+
+                    return Mono.just(new Movie(movieInfo, List.of(), null, ex.getMessage()));
+                });
+    }
+
+    // Compara las películas de un ciclo de sondeo con las del ciclo anterior y guarda las del ciclo actual.
+    private static List<MovieChange> detectChanges(Map<Long, Movie> previousMovies, List<Movie> movies) {
+        List<MovieChange> changes = new ArrayList<>();
+        Map<Long, Movie> currentMovies = new HashMap<>();
+
+        for(Movie movie : movies) {
+            Long movieInfoId = movie.getMovie().getMovieInfoId();
+            Movie previousMovie = previousMovies.get(movieInfoId);
+
+            currentMovies.put(movieInfoId, movie);
+
+            if(previousMovie == null)
+                changes.add(MovieChange.added(movie));
+            else if(!previousMovie.equals(movie))
+                changes.add(MovieChange.changed(movie));
+        }
+
+        for(Long movieInfoId : previousMovies.keySet())
+            if(!currentMovies.containsKey(movieInfoId))
+                changes.add(MovieChange.removed(movieInfoId));
+
+        previousMovies.clear();
+        previousMovies.putAll(currentMovies);
+
+        return changes;
+    }
+
+    // Búsqueda de una película por id. Si se ha configurado una política de peticiones de cobertura, se lanza una
+    // segunda búsqueda cuando la primera tarda demasiado y nos quedamos con la que responda antes.
+    private Mono<MovieInfo> retrieveMovieInfo(Long movieId) {
+        HedgingPolicy hedgingPolicy = config.getMovieInfoHedgingPolicy();
+
+        if(hedgingPolicy == null)
+            return movieInfoMonoMetrics.instrument(movieInfoService.retrieveMovieInfoMonoUsingId(movieId));
+
+        // Cada intento se registra por separado en las métricas.
+        return hedgingPolicy.hedge(() -> movieInfoMonoMetrics.instrument(
+                movieInfoService.retrieveMovieInfoMonoUsingId(movieId)));
+    }
+
+    private Flux<MovieEvent> streamMovie(MovieInfo movieInfo, int chunkSize) {
+        Long movieInfoId = movieInfo.getMovieInfoId();
+
+        // El operador o método "concat" garantiza que la información de la película se emite antes que sus reseñas y
+        // que el evento END se emite al final.
+        return Flux.concat(Mono.just(MovieEvent.movieInfo(movieInfo)),
+                retrieveReviews(movieInfoId)
+                        .buffer(chunkSize)
+                        .map(reviewsChunk -> MovieEvent.reviews(movieInfoId, reviewsChunk)),
+                Mono.fromSupplier(() -> MovieEvent.end(movieInfoId)));
+    }
+
+    // Aplica el operador "flatMap", o "flatMapSequential" si se ha configurado que se mantenga el orden, con la
+    // concurrencia y el número de elementos solicitados por adelantado de la configuración del servicio.
+    private <T, R> Flux<R> flatMapWithConfig(Flux<T> source,
+                                             Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        if(config.isOrdered())
+            return source.flatMapSequential(mapper, config.getConcurrency(), config.getPrefetch());
+
+        return source.flatMap(mapper, config.getConcurrency(), config.getPrefetch());
+    }
+
+    private Flux<Movie> getMoviesWithReviews(List<MovieInfo> movieInfoBatch) {
+        List<Long> movieInfoIds = movieInfoBatch.stream()
+                .map(MovieInfo::getMovieInfoId)
+                .collect(Collectors.toList());
+
+        return retrieveReviews(movieInfoIds)
+                .collect(Collectors.groupingBy(Review::getMovieInfoId))
+                // Las películas sin reseñas se emiten con una lista vacía, igual que ocurre en "getAllMovies".
+                .flatMapIterable(reviewsByMovieId -> movieInfoBatch.stream()
+                        .map(movieInfo -> new Movie(movieInfo,
+                                reviewsByMovieId.getOrDefault(movieInfo.getMovieInfoId(), List.of())))
+                        .collect(Collectors.toList()));
+    }
+
+    // Aplica la política de contrapresión de los flujos de películas, si se ha configurado.
+    private <T> Flux<T> applyBackpressurePolicy(Flux<T> fluxOfMovies) {
+        BackpressurePolicy backpressurePolicy = config.getMovieBackpressurePolicy();
+
+        return backpressurePolicy != null ? backpressurePolicy.apply(fluxOfMovies) : fluxOfMovies;
+    }
+
+    private <T> Flux<T> circuitBreaker(CircuitBreaker circuitBreaker, Flux<T> serviceCall) {
+        return circuitBreaker != null ? circuitBreaker.decorate(serviceCall) : serviceCall;
+    }
+
+    private <T> Mono<T> circuitBreaker(CircuitBreaker circuitBreaker, Mono<T> serviceCall) {
+        return circuitBreaker != null ? circuitBreaker.decorate(serviceCall) : serviceCall;
+    }
+
+    private <T> Flux<T> rateLimit(RateLimiter rateLimiter, Flux<T> serviceCall) {
+        return rateLimiter != null ? rateLimiter.decorate(serviceCall) : serviceCall;
+    }
+
+    private <T> Mono<T> rateLimit(RateLimiter rateLimiter, Mono<T> serviceCall) {
+        return rateLimiter != null ? rateLimiter.decorate(serviceCall) : serviceCall;
+    }
+
+    // Cada llamada correcta a los servicios aumenta el presupuesto de reintentos, si se ha configurado.
+    private <T> Flux<T> recordSuccess(Flux<T> serviceCall) {
+        RetryBudget retryBudget = config.getRetryBudget();
+
+        if(retryBudget == null)
+            return serviceCall;
+
+        return serviceCall.doOnComplete(retryBudget::recordSuccess);
+    }
+
+    // Reintentos para los errores que cumplen "filter". Si se ha configurado un presupuesto de reintentos, se limitan
+    // con el presupuesto compartido y esperan un tiempo exponencial con "jitter".
+    private Retry getRetry(Predicate<? super Throwable> filter) {
+        RetryBudget retryBudget = config.getRetryBudget();
+
+        if(retryBudget == null)
+            return getRetryBackoffSpec(filter);
 
-                    return movie;
-                }).log();
+        return retryBudget.retry(filter, retries::increment);
     }
 
-    private RetryBackoffSpec getRetryBackoffSpec() {
+    private RetryBackoffSpec getRetryBackoffSpec(Predicate<? super Throwable> filter) {
         // Creamos un reintento de tipo "backoff", es decir, el tiempo que transcurre en cada reintento crece
         // exponencialmente.
         //return Retry.backoff(3, Duration.ofMillis(500))
@@ -202,7 +663,8 @@ public class MovieReactiveService {
         return Retry.fixedDelay(3, Duration.ofMillis(500))
                 // Este operador o método es para filtrar las excepciones sobre las cuales queremos realizar reintentos.
                 // Si no se indica, por defecto se realiza los reintentos para todas las excepciones.
-                .filter(ex -> ex instanceof MovieException)
+                .filter(filter)
+                .doBeforeRetry(retrySignal -> retries.increment())
                 // Por defecto, el operador o método "retryWhen" convierte la excepción ocurrida a otra de tipo
                 // RetryExhaustedException. Por esta razón, en este opeador o método "RetryExhaustedException"
                 // indicamos que propage la excepción original ocurrida sin que la convierta.
@@ -0,0 +1,91 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.domain.Revenue;
+import com.mlorenzo.domain.Review;
+import com.mlorenzo.metrics.InMemoryMetricsRegistry;
+import com.mlorenzo.metrics.MetricsRegistry;
+import com.mlorenzo.resilience.BackpressurePolicy;
+import com.mlorenzo.resilience.CircuitBreaker;
+import com.mlorenzo.resilience.HedgingPolicy;
+import com.mlorenzo.resilience.RateLimiter;
+import com.mlorenzo.resilience.RetryBudget;
+import com.mlorenzo.trace.SignalTracer;
+import com.mlorenzo.util.OffloadSchedulers;
+import lombok.Builder;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.concurrent.Queues;
+
+import java.util.function.Function;
+
+// Configuración de MovieReactiveService. Permite ajustar cada despliegue sin cambiar el código del servicio.
+@Getter
+@Builder(toBuilder = true)
+public class MovieReactiveServiceConfig {
+    // Número máximo de películas cuyas reseñas se obtienen a la vez en los métodos "getAllMovies*". Por defecto es el
+    // mismo valor que usa el operador "flatMap" de Reactor.
+    @Builder.Default
+    private final int concurrency = Queues.SMALL_BUFFER_SIZE;
+
+    // Número de elementos que se solicitan por adelantado a cada flujo interno del "flatMap". Por defecto es el mismo
+    // valor que usa el operador "flatMap" de Reactor.
+    @Builder.Default
+    private final int prefetch = Queues.XS_BUFFER_SIZE;
+
+    // Si es true, las películas se emiten en el mismo orden en que llegan usando "flatMapSequential". Si es false, se
+    // emiten según se van completando usando "flatMap".
+    @Builder.Default
+    private final boolean ordered = false;
+
+    // Planificador en el que se ejecutan las llamadas bloqueantes a los servicios.
+    @Builder.Default
+    private final Scheduler blockingScheduler = OffloadSchedulers.boundedElastic();
+
+    // Registro en el que se guardan las métricas de las llamadas a los servicios, los reintentos y las repeticiones.
+    @Builder.Default
+    private final MetricsRegistry metricsRegistry = new InMemoryMetricsRegistry();
+
+    // Trazador de señales de los pipelines. Cada pipeline se identifica por el nombre del método que lo devuelve.
+    @Builder.Default
+    private final SignalTracer signalTracer = SignalTracer.getDefault();
+
+    // Política de peticiones de cobertura para las búsquedas de películas por id. Si es null, no se usa.
+    private final HedgingPolicy movieInfoHedgingPolicy;
+
+    // Cortocircuito para las llamadas a ReviewService. Si es null, no se usa.
+    private final CircuitBreaker reviewCircuitBreaker;
+
+    // Reseñas que se devuelven, a partir del id de la película, cuando el cortocircuito de ReviewService no permite la
+    // llamada. Si es null, la llamada falla inmediatamente con CallNotPermittedException.
+    private final Function<Long, Flux<Review>> reviewFallback;
+
+    // Limitador de llamadas por segundo a ReviewService. Si es null, no se usa.
+    private final RateLimiter reviewRateLimiter;
+
+    // Cortocircuito para las llamadas a RevenueService. Si es null, no se usa.
+    private final CircuitBreaker revenueCircuitBreaker;
+
+    // Ingresos que se devuelven, a partir del id de la película, cuando el cortocircuito de RevenueService no permite
+    // la llamada. Si es null, la llamada falla inmediatamente con CallNotPermittedException.
+    private final Function<Long, Mono<Revenue>> revenueFallback;
+
+    // Limitador de llamadas por segundo a RevenueService. Si es null, no se usa.
+    private final RateLimiter revenueRateLimiter;
+
+    // Presupuesto de reintentos compartido por todas las subscripciones de los métodos que reintentan:
+    // "getAllMoviesWithRetryWhen", "getAllMoviesWithRepeat", "getAllMoviesWithRepeatNTimes", "getAllMoviesWithPolling"
+    // (en cada ciclo) y "getAllMoviesWithPerMovieRetry" (en las reseñas de cada película). Si es null, cada
+    // subscripción hace sus propios reintentos con un tiempo de espera fijo.
+    private final RetryBudget retryBudget;
+
+    // Política de contrapresión de los métodos "getAllMovies", "getAllMoviesWithRepeat", "getAllMoviesWithRepeatNTimes"
+    // y "getAllMoviesWithPolling" para cuando el subscriptor es más lento que el productor. Si es null, el productor
+    // respeta la demanda del subscriptor.
+    private final BackpressurePolicy movieBackpressurePolicy;
+
+    public static MovieReactiveServiceConfig defaults() {
+        return MovieReactiveServiceConfig.builder().build();
+    }
+}
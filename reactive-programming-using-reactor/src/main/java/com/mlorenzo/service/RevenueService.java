@@ -1,6 +1,9 @@
 package com.mlorenzo.service;
 
 import com.mlorenzo.domain.Revenue;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 
 import static com.mlorenzo.util.CommonUtil.delay;
 
@@ -8,11 +11,22 @@ public class RevenueService {
 
     public Revenue getRevenue(Long movieId){
         delay(1000); // simulating a network call ( DB or Rest call)
+        return buildRevenue(movieId);
+
+    }
+
+    // Versión no bloqueante de "getRevenue". El retraso se simula con un temporizador en lugar de dormir el hilo, así
+    // que mientras se espera la respuesta no se ocupa ningún hilo.
+    public Mono<Revenue> getRevenueMono(Long movieId){
+        return Mono.delay(Duration.ofMillis(1000)) // simulating a network call ( DB or Rest call)
+                .map(tick -> buildRevenue(movieId));
+    }
+
+    private Revenue buildRevenue(Long movieId){
         return Revenue.builder()
                 .movieInfoId(movieId)
                 .budget(1000000)
                 .boxOffice(5000000)
                 .build();
-
     }
 }
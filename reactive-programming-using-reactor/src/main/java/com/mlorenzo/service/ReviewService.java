@@ -3,6 +3,7 @@ package com.mlorenzo.service;
 import com.mlorenzo.domain.Review;
 import reactor.core.publisher.Flux;
 
+import java.util.Collection;
 import java.util.List;
 
 public class ReviewService {
@@ -19,4 +20,13 @@ public class ReviewService {
         return Flux.fromIterable(reviewsList);
     }
 
+    // Versión por lotes de "retrieveReviewsFlux": con una sola llamada se obtienen las reseñas de todas las películas
+    // cuyos identificadores se indican. Cada reseña lleva el identificador de su película para que el llamante pueda
+    // agruparlas.
+    public Flux<Review> retrieveReviewsFluxByMovieIds(Collection<Long> movieInfoIds){
+        return Flux.fromIterable(movieInfoIds)
+                // Versión simplificada de la expresión "movieInfoId -> retrieveReviews(movieInfoId)"
+                .flatMapIterable(this::retrieveReviews);
+    }
+
 }
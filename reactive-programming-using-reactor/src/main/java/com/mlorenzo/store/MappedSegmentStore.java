@@ -0,0 +1,281 @@
+package com.mlorenzo.store;
+
+import reactor.core.publisher.Flux;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Almacén de registros en ficheros de segmentos proyectados en memoria ("memory-mapped"). Los registros se añaden al
+// final del último segmento y, cuando no caben, se crea un segmento nuevo.
+// Cada segmento empieza con una cabecera de 16 bytes: un número mágico, la versión del formato y la posición en la que
+// termina el último registro escrito. Cada registro va precedido de su longitud en bytes.
+// Al abrir el almacén solo se proyecta cada segmento y se lee su cabecera, sin recorrer los registros, así que el
+// tiempo de arranque no depende del número de registros. Las lecturas se hacen directamente sobre la proyección, sin
+// copiar los datos al heap, y es el sistema operativo el que carga las páginas del fichero según se necesitan.
+public class MappedSegmentStore implements Closeable {
+    static final int MAGIC = 0x4D4C5331;
+    static final int VERSION = 1;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int LIMIT_OFFSET = 8;
+    static final int HEADER_SIZE = 16;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private MappedSegmentStore(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    // Abre el almacén del directorio indicado, creándolo si no existe. "segmentSize" es el tamaño en bytes de los
+    // segmentos nuevos.
+    public static MappedSegmentStore open(Path directory, int segmentSize) throws IOException {
+        if(segmentSize <= HEADER_SIZE + Integer.BYTES)
+            throw new IllegalArgumentException("segmentSize is too small");
+
+        Files.createDirectories(directory);
+
+        var store = new MappedSegmentStore(directory, segmentSize);
+        List<Path> segmentFiles;
+
+        try(Stream<Path> files = Files.list(directory)) {
+            // Los nombres de los segmentos tienen el número con ceros a la izquierda, así que ordenarlos por nombre
+            // es ordenarlos por número.
+            segmentFiles = files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for(Path segmentFile : segmentFiles)
+            store.segments.add(Segment.open(segmentFile));
+
+        return store;
+    }
+
+    // Ubicación de un registro: el número de segmento en los 32 bits altos y la posición dentro del segmento en los
+    // 32 bits bajos.
+    public static long location(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    public static int segmentIndex(long location) {
+        return (int) (location >>> 32);
+    }
+
+    public static int offset(long location) {
+        return (int) location;
+    }
+
+    // Añade un registro de "size" bytes y devuelve su ubicación. "writer" tiene que escribir exactamente esos bytes a
+    // partir de la posición actual del buffer que recibe.
+    // El registro solo es visible para los lectores cuando se ha escrito entero.
+    public synchronized long append(int size, Consumer<ByteBuffer> writer) {
+        var recordSize = Integer.BYTES + size;
+
+        if(recordSize > segmentSize - HEADER_SIZE)
+            throw new IllegalArgumentException("Record of " + size + " bytes does not fit in a segment");
+
+        var segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+
+        if(segment == null || segment.limit + recordSize > segment.buffer.capacity())
+            segment = newSegment();
+
+        ByteBuffer buffer = segment.buffer.duplicate();
+        var recordLocation = location(segments.size() - 1, segment.limit);
+
+        buffer.position(segment.limit);
+        buffer.putInt(size);
+        writer.accept(buffer);
+
+        if(buffer.position() != segment.limit + recordSize)
+            throw new IllegalStateException("Writer wrote " + (buffer.position() - segment.limit - Integer.BYTES)
+                    + " bytes instead of " + size);
+
+        segment.commit(buffer.position());
+
+        return recordLocation;
+    }
+
+    // Emite los registros en el orden en que se añadieron. El operador o método "generate" crea un registro cada vez
+    // que el subscriptor solicita un elemento, así que se respeta la contrapresión y nunca hay en memoria más
+    // registros decodificados que los solicitados. Los registros añadidos durante la lectura también se emiten.
+    public <T> Flux<T> read(RecordDecoder<T> decoder) {
+        return read(location(0, HEADER_SIZE), Long.MAX_VALUE, decoder);
+    }
+
+    // Versión de "read" que empieza en la ubicación indicada y recorre como máximo "maxRecords" registros, incluidos
+    // los que el decodificador salta.
+    public <T> Flux<T> read(long fromLocation, long maxRecords, RecordDecoder<T> decoder) {
+        return Flux.generate(() -> new Cursor(fromLocation, maxRecords), (cursor, sink) -> {
+            while(cursor.remaining > 0 && cursor.segmentIndex < segments.size()) {
+                var segment = segments.get(cursor.segmentIndex);
+
+                while(cursor.remaining > 0 && cursor.offset < segment.limit) {
+                    var size = segment.buffer.getInt(cursor.offset);
+                    var value = decoder.decode(segment.buffer, cursor.offset + Integer.BYTES);
+
+                    cursor.offset += Integer.BYTES + size;
+                    cursor.remaining--;
+
+                    if(value != null) {
+                        sink.next(value);
+
+                        return cursor;
+                    }
+                }
+
+                cursor.segmentIndex++;
+                cursor.offset = HEADER_SIZE;
+            }
+
+            sink.complete();
+
+            return cursor;
+        });
+    }
+
+    // Decodifica el registro de la ubicación indicada, que tiene que ser una ubicación devuelta por "append" o
+    // "forEach".
+    public <T> T get(long location, RecordDecoder<T> decoder) {
+        var segment = segments.get(segmentIndex(location));
+        var offset = offset(location);
+
+        if(offset < HEADER_SIZE || offset >= segment.limit)
+            throw new IllegalArgumentException("No record at location " + Long.toHexString(location));
+
+        return decoder.decode(segment.buffer, offset + Integer.BYTES);
+    }
+
+    // Recorre todos los registros una sola vez, por ejemplo, para reconstruir índices al arrancar.
+    public void forEach(RecordVisitor visitor) {
+        forEach(location(0, HEADER_SIZE), Long.MAX_VALUE, visitor);
+    }
+
+    // Versión de "forEach" que empieza en la ubicación indicada y recorre como máximo "maxRecords" registros.
+    public void forEach(long fromLocation, long maxRecords, RecordVisitor visitor) {
+        var remaining = maxRecords;
+        var offset = offset(fromLocation);
+
+        for(int segmentIndex = segmentIndex(fromLocation); remaining > 0 && segmentIndex < segments.size();
+                segmentIndex++, offset = HEADER_SIZE) {
+            var segment = segments.get(segmentIndex);
+            var limit = segment.limit;
+
+            for(; remaining > 0 && offset < limit; offset += Integer.BYTES + segment.buffer.getInt(offset), remaining--)
+                visitor.visit(location(segmentIndex, offset), segment.buffer, offset + Integer.BYTES);
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    // Fuerza la escritura en disco de los cambios de todos los segmentos.
+    public void flush() {
+        for(Segment segment : segments)
+            segment.buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+
+        for(Segment segment : segments)
+            segment.channel.close();
+    }
+
+    private Segment newSegment() {
+        var file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segments.size(), SEGMENT_SUFFIX));
+
+        try {
+            var segment = Segment.create(file, segmentSize);
+
+            segments.add(segment);
+
+            return segment;
+        } catch(IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // Copia en memoria de la posición final guardada en la cabecera. Es "volatile" para que los lectores de otros
+        // hilos vean los registros ya escritos.
+        private volatile int limit;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, int limit) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.limit = limit;
+        }
+
+        private static Segment create(Path file, int size) throws IOException {
+            var channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putLong(LIMIT_OFFSET, HEADER_SIZE);
+
+            return new Segment(channel, buffer, HEADER_SIZE);
+        }
+
+        private static Segment open(Path file) throws IOException {
+            var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+
+            if(buffer.capacity() < HEADER_SIZE || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                channel.close();
+
+                throw new IOException(file + " is not a segment file");
+            }
+
+            if(buffer.getInt(VERSION_OFFSET) != VERSION) {
+                channel.close();
+
+                throw new IOException("Unsupported segment version " + buffer.getInt(VERSION_OFFSET) + " in " + file);
+            }
+
+            return new Segment(channel, buffer, (int) buffer.getLong(LIMIT_OFFSET));
+        }
+
+        // Guarda la nueva posición final después de escribir el registro. Si el proceso termina a mitad de escritura,
+        // al volver a abrir el segmento el registro incompleto queda fuera.
+        private void commit(int newLimit) {
+            buffer.putLong(LIMIT_OFFSET, newLimit);
+            limit = newLimit;
+        }
+    }
+
+    private static class Cursor {
+        private int segmentIndex;
+        private int offset;
+        private long remaining;
+
+        private Cursor(long location, long remaining) {
+            this.segmentIndex = segmentIndex(location);
+            this.offset = offset(location);
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.mlorenzo.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Índice de claves long a uno o varios valores long guardado fuera del heap, en un ByteBuffer directo. Es una tabla
+// hash de direccionamiento abierto con sondeo lineal: cada posición ocupa 8 bytes para la clave más 8 bytes por valor,
+// sin objetos Long ni entradas de un HashMap, así que el recolector de basura no tiene que recorrerlo.
+// Admite un único escritor a la vez (los métodos que escriben son "synchronized") y lecturas concurrentes sin
+// bloqueos: el escritor guarda primero los valores y después publica la clave con semántica "release", y los lectores
+// leen la clave con semántica "acquire", así que si ven la clave también ven sus valores. Cuando la tabla se llena
+// más de la mitad, el escritor crea otra el doble de grande y la publica en un campo "volatile"; los lectores que aún
+// usan la tabla anterior siguen viendo datos correctos.
+// Nota: Long.MIN_VALUE está reservado para marcar las posiciones vacías y no se puede usar como clave. Como un
+// ByteBuffer tiene como máximo 2 GB, el número máximo de claves depende del número de valores por clave (unos 67
+// millones con un valor).
+public class OffHeapLongIndex {
+    // Valor que devuelve "get" cuando la clave no existe.
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    // Permite leer y escribir longs de un ByteBuffer con semántica "acquire"/"release". El orden de bytes nativo
+    // evita conversiones.
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+
+    private final int valuesPerKey;
+    private final int slotSize;
+
+    private volatile Table table;
+    private int size;
+
+    public OffHeapLongIndex(int valuesPerKey, int expectedKeys) {
+        if(valuesPerKey <= 0)
+            throw new IllegalArgumentException("valuesPerKey must be greater than 0");
+
+        this.valuesPerKey = valuesPerKey;
+        this.slotSize = Long.BYTES * (1 + valuesPerKey);
+        this.table = new Table(capacityFor(expectedKeys), slotSize);
+    }
+
+    // Devuelve el valor número "valueIndex" de la clave, o MISSING si la clave no existe.
+    public long get(long key, int valueIndex) {
+        checkValueIndex(valueIndex);
+
+        var current = table;
+        var slot = current.find(key);
+
+        if(slot < 0)
+            return MISSING;
+
+        return (long) LONGS.getVolatile(current.buffer, current.valueOffset(slot, valueIndex));
+    }
+
+    public boolean containsKey(long key) {
+        return table.find(key) >= 0;
+    }
+
+    // Guarda los valores de la clave. Si ya existía, sus valores se sustituyen.
+    public synchronized void put(long key, long... values) {
+        if(key == EMPTY)
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be used as a key");
+        if(values.length != valuesPerKey)
+            throw new IllegalArgumentException("Expected " + valuesPerKey + " values but got " + values.length);
+
+        var current = table;
+        var slot = current.find(key);
+
+        if(slot >= 0) {
+            for(int i = 0; i < valuesPerKey; i++)
+                LONGS.setVolatile(current.buffer, current.valueOffset(slot, i), values[i]);
+
+            return;
+        }
+
+        if((size + 1) * 2L > current.capacity) {
+            current = resize(current);
+        }
+
+        current.insert(key, values);
+        size++;
+    }
+
+    // Sustituye solo el valor número "valueIndex" de una clave existente.
+    public synchronized void set(long key, int valueIndex, long value) {
+        checkValueIndex(valueIndex);
+
+        var current = table;
+        var slot = current.find(key);
+
+        if(slot < 0)
+            throw new IllegalArgumentException("Key " + key + " does not exist");
+
+        LONGS.setVolatile(current.buffer, current.valueOffset(slot, valueIndex), value);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Memoria que ocupa la tabla fuera del heap, en bytes.
+    public long getOffHeapBytes() {
+        return (long) table.capacity * slotSize;
+    }
+
+    private Table resize(Table current) {
+        var resized = new Table(current.capacity * 2, slotSize);
+        var values = new long[valuesPerKey];
+
+        for(int slot = 0; slot < current.capacity; slot++) {
+            var key = (long) LONGS.getVolatile(current.buffer, current.keyOffset(slot));
+
+            if(key == EMPTY)
+                continue;
+
+            for(int i = 0; i < valuesPerKey; i++)
+                values[i] = (long) LONGS.getVolatile(current.buffer, current.valueOffset(slot, i));
+
+            resized.insert(key, values);
+        }
+
+        // A partir de aquí, los lectores usan la nueva tabla.
+        table = resized;
+
+        return resized;
+    }
+
+    private void checkValueIndex(int valueIndex) {
+        if(valueIndex < 0 || valueIndex >= valuesPerKey)
+            throw new IndexOutOfBoundsException("valueIndex " + valueIndex);
+    }
+
+    private static int capacityFor(int expectedKeys) {
+        var capacity = MIN_CAPACITY;
+
+        // Se mantiene la tabla llena como máximo a la mitad para que las búsquedas sondeen pocas posiciones.
+        while(capacity < expectedKeys * 2L)
+            capacity <<= 1;
+
+        return capacity;
+    }
+
+    // Mezcla los bits de la clave (finalizador de MurmurHash3) para que claves consecutivas no acaben en posiciones
+    // consecutivas.
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+
+        return key;
+    }
+
+    private static class Table {
+        private final ByteBuffer buffer;
+        private final int capacity;
+        private final int slotSize;
+
+        private Table(int capacity, int slotSize) {
+            if((long) capacity * slotSize > Integer.MAX_VALUE)
+                throw new IllegalStateException("OffHeapLongIndex cannot hold more than "
+                        + Integer.MAX_VALUE / slotSize / 2 + " keys");
+
+            this.capacity = capacity;
+            this.slotSize = slotSize;
+            this.buffer = ByteBuffer.allocateDirect(capacity * slotSize).order(ByteOrder.nativeOrder());
+
+            for(int slot = 0; slot < capacity; slot++)
+                buffer.putLong(keyOffset(slot), EMPTY);
+        }
+
+        // Devuelve la posición de la clave o -1 si no existe.
+        private int find(long key) {
+            var mask = capacity - 1;
+            var slot = (int) mix(key) & mask;
+
+            while(true) {
+                var current = (long) LONGS.getAcquire(buffer, keyOffset(slot));
+
+                if(current == key && key != EMPTY)
+                    return slot;
+                if(current == EMPTY)
+                    return -1;
+
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void insert(long key, long[] values) {
+            var mask = capacity - 1;
+            var slot = (int) mix(key) & mask;
+
+            while((long) LONGS.getAcquire(buffer, keyOffset(slot)) != EMPTY)
+                slot = (slot + 1) & mask;
+
+            for(int i = 0; i < values.length; i++)
+                LONGS.set(buffer, valueOffset(slot, i), values[i]);
+
+            // La clave se publica después de sus valores.
+            LONGS.setRelease(buffer, keyOffset(slot), key);
+        }
+
+        private int keyOffset(int slot) {
+            return slot * slotSize;
+        }
+
+        private int valueOffset(int slot, int valueIndex) {
+            return slot * slotSize + Long.BYTES * (1 + valueIndex);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mlorenzo.store;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Índice invertido: para cada clave (un año, un nombre del reparto...) guarda la lista de valores long asociados, por
+// ejemplo, los ids de las películas. Cada lista es un array de long que crece según se añaden valores, sin objetos
+// Long.
+// Igual que OffHeapLongIndex, admite un único escritor a la vez (el llamante tiene que coordinar las escrituras) y
+// lecturas concurrentes sin bloqueos.
+public class PostingListIndex<K> {
+    private final ConcurrentMap<K, PostingList> postingLists = new ConcurrentHashMap<>();
+
+    public void add(K key, long value) {
+        postingLists.computeIfAbsent(key, k -> new PostingList()).add(value);
+    }
+
+    // Añade el valor solo si la lista de la clave no lo tiene ya. Recorre la lista entera, así que solo conviene usarlo
+    // cuando el valor puede estar repetido.
+    public void addIfAbsent(K key, long value) {
+        var postingList = postingLists.get(key);
+
+        if(postingList == null || !postingList.contains(value))
+            add(key, value);
+    }
+
+    // Devuelve la lista de la clave o null si no tiene ningún valor.
+    public PostingList get(K key) {
+        return postingLists.get(key);
+    }
+
+    public int keyCount() {
+        return postingLists.size();
+    }
+
+    public static final class PostingList {
+        private volatile long[] values = new long[4];
+        // Se escribe después de los valores, así que un lector que lee "size" ve todos los valores anteriores.
+        private volatile int size;
+
+        private void add(long value) {
+            var current = values;
+
+            if(size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                values = current;
+            }
+
+            current[size] = value;
+            size = size + 1;
+        }
+
+        public boolean contains(long value) {
+            var current = values;
+            var currentSize = size;
+
+            for(int index = 0; index < currentSize; index++)
+                if(current[index] == value)
+                    return true;
+
+            return false;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // "index" tiene que ser menor que un valor devuelto antes por "size".
+        public long get(int index) {
+            return values[index];
+        }
+    }
+}
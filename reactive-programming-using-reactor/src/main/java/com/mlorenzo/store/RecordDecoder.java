@@ -0,0 +1,10 @@
+package com.mlorenzo.store;
+
+import java.nio.ByteBuffer;
+
+// Convierte el registro que empieza en "offset" en un objeto. Si devuelve null, el registro se salta, lo que permite
+// filtrar registros leyendo solo algunos de sus campos.
+@FunctionalInterface
+public interface RecordDecoder<T> {
+    T decode(ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,9 @@
+package com.mlorenzo.store;
+
+import java.nio.ByteBuffer;
+
+// Recibe cada registro de un recorrido completo del almacén junto con su ubicación.
+@FunctionalInterface
+public interface RecordVisitor {
+    void visit(long location, ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,82 @@
+package com.mlorenzo.store;
+
+import java.util.Arrays;
+
+// Conjunto ordenado de valores long guardados en un array, por ejemplo, los ids de las películas para paginar por
+// cursor. Buscar la posición de un valor cuesta O(log n), así que recorrer una página cuesta lo mismo esté donde esté.
+// Admite un único escritor a la vez y lecturas concurrentes sin bloqueos: cada escritura publica una instantánea nueva
+// con el array y su tamaño, y los lectores trabajan siempre con una instantánea completa. Añadir valores en orden
+// creciente (el caso habitual con ids consecutivos) reutiliza el array; un valor fuera de orden copia el array.
+public class SortedLongSet {
+    private volatile Snapshot snapshot = new Snapshot(new long[16], 0);
+
+    // Devuelve false si el valor ya estaba.
+    public synchronized boolean add(long value) {
+        var current = snapshot;
+        var values = current.values;
+        var size = current.size;
+
+        if(size == 0 || value > values[size - 1]) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+
+            // Los lectores de la instantánea actual no miran más allá de "size", así que se puede escribir en el
+            // mismo array.
+            values[size] = value;
+            snapshot = new Snapshot(values, size + 1);
+
+            return true;
+        }
+
+        var index = Arrays.binarySearch(values, 0, size, value);
+
+        if(index >= 0)
+            return false;
+
+        var insertionPoint = -index - 1;
+        var newValues = new long[Math.max(values.length, size + 1)];
+
+        System.arraycopy(values, 0, newValues, 0, insertionPoint);
+        newValues[insertionPoint] = value;
+        System.arraycopy(values, insertionPoint, newValues, insertionPoint + 1, size - insertionPoint);
+        snapshot = new Snapshot(newValues, size + 1);
+
+        return true;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    public static final class Snapshot {
+        private final long[] values;
+        private final int size;
+
+        private Snapshot(long[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long get(int index) {
+            if(index >= size)
+                throw new IndexOutOfBoundsException("index " + index);
+
+            return values[index];
+        }
+
+        // Posición del primer valor mayor que "value".
+        public int indexAfter(long value) {
+            var index = Arrays.binarySearch(values, 0, size, value);
+
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.mlorenzo.trace;
+
+import org.slf4j.event.Level;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.core.publisher.SignalType;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Alternativa al operador "log" para los pipelines que se ejecutan con mucha frecuencia. Cada pipeline se identifica
+// por un nombre y está desactivado hasta que se activa con "enable", lo cual se puede hacer en tiempo de ejecución.
+// Al activarlo se indica el porcentaje de subscripciones que se trazan y qué señales se registran.
+// La decisión de trazar o no se toma una sola vez por subscripción: si el pipeline está desactivado, no se ha elegido
+// la subscripción en el muestreo o el destino está desactivado, la subscripción se hace directamente sobre el flujo
+// original sin añadir ningún operador.
+public class SignalTracer {
+    public static final Set<SignalType> ALL_SIGNALS = EnumSet.of(SignalType.ON_SUBSCRIBE, SignalType.REQUEST,
+            SignalType.ON_NEXT, SignalType.ON_ERROR, SignalType.ON_COMPLETE, SignalType.CANCEL);
+
+    private static final SignalTracer DEFAULT = new SignalTracer(new Slf4jTraceSink(Level.INFO));
+
+    private final TraceSink sink;
+    private final Map<String, TraceSettings> pipelines = new ConcurrentHashMap<>();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+
+    public SignalTracer(TraceSink sink) {
+        this.sink = sink;
+    }
+
+    // Instancia compartida por los servicios que no indican otra. Escribe las trazas en el log con nivel INFO.
+    public static SignalTracer getDefault() {
+        return DEFAULT;
+    }
+
+    public void enable(String pipeline) {
+        enable(pipeline, 1.0, ALL_SIGNALS);
+    }
+
+    public void enable(String pipeline, double sampleRate, Set<SignalType> signals) {
+        if(sampleRate <= 0 || sampleRate > 1)
+            throw new IllegalArgumentException("sampleRate must be in (0, 1]");
+
+        pipelines.put(pipeline, new TraceSettings(sampleRate, EnumSet.copyOf(signals)));
+    }
+
+    public void disable(String pipeline) {
+        pipelines.remove(pipeline);
+    }
+
+    public boolean isEnabled(String pipeline) {
+        return pipelines.containsKey(pipeline);
+    }
+
+    // Para usar con el operador "transform" de Flux, por ejemplo ".transform(signalTracer.flux("getAllMovies"))".
+    public <T> Function<Flux<T>, Flux<T>> flux(String pipeline) {
+        return source -> Flux.defer(() -> {
+            TraceSettings settings = sample(pipeline);
+
+            if(settings == null)
+                return source;
+
+            var context = new TraceContext(pipeline, subscriptionIds.incrementAndGet());
+            Flux<T> traced = source;
+
+            if(settings.signals.contains(SignalType.ON_SUBSCRIBE))
+                traced = traced.doOnSubscribe(subscription -> context.record(SignalType.ON_SUBSCRIBE, null));
+            if(settings.signals.contains(SignalType.REQUEST))
+                traced = traced.doOnRequest(requested -> context.record(SignalType.REQUEST, requested));
+            if(settings.tracesTerminalOrNext())
+                traced = traced.doOnEach(signal -> context.record(settings, signal));
+            if(settings.signals.contains(SignalType.CANCEL))
+                traced = traced.doOnCancel(() -> context.record(SignalType.CANCEL, null));
+
+            return traced;
+        });
+    }
+
+    // Para usar con el operador "transform" de Mono, por ejemplo ".transform(signalTracer.mono("getMovieById"))".
+    public <T> Function<Mono<T>, Mono<T>> mono(String pipeline) {
+        return source -> Mono.defer(() -> {
+            TraceSettings settings = sample(pipeline);
+
+            if(settings == null)
+                return source;
+
+            var context = new TraceContext(pipeline, subscriptionIds.incrementAndGet());
+            Mono<T> traced = source;
+
+            if(settings.signals.contains(SignalType.ON_SUBSCRIBE))
+                traced = traced.doOnSubscribe(subscription -> context.record(SignalType.ON_SUBSCRIBE, null));
+            if(settings.signals.contains(SignalType.REQUEST))
+                traced = traced.doOnRequest(requested -> context.record(SignalType.REQUEST, requested));
+            if(settings.tracesTerminalOrNext())
+                traced = traced.doOnEach(signal -> context.record(settings, signal));
+            if(settings.signals.contains(SignalType.CANCEL))
+                traced = traced.doOnCancel(() -> context.record(SignalType.CANCEL, null));
+
+            return traced;
+        });
+    }
+
+    // Devuelve la configuración del pipeline si hay que trazar esta subscripción o null en caso contrario.
+    private TraceSettings sample(String pipeline) {
+        TraceSettings settings = pipelines.get(pipeline);
+
+        if(settings == null || !sink.isEnabled())
+            return null;
+
+        if(settings.sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= settings.sampleRate)
+            return null;
+
+        return settings;
+    }
+
+    private static class TraceSettings {
+        private final double sampleRate;
+        private final Set<SignalType> signals;
+
+        private TraceSettings(double sampleRate, Set<SignalType> signals) {
+            this.sampleRate = sampleRate;
+            this.signals = signals;
+        }
+
+        private boolean tracesTerminalOrNext() {
+            return signals.contains(SignalType.ON_NEXT) || signals.contains(SignalType.ON_ERROR)
+                    || signals.contains(SignalType.ON_COMPLETE);
+        }
+    }
+
+    private class TraceContext {
+        private final String pipeline;
+        private final long subscriptionId;
+        // Las señales de una subscripción llegan de forma secuencial, así que no hace falta un contador atómico.
+        private long sequence;
+
+        private TraceContext(String pipeline, long subscriptionId) {
+            this.pipeline = pipeline;
+            this.subscriptionId = subscriptionId;
+        }
+
+        private void record(SignalType signalType, Object detail) {
+            sink.record(pipeline, subscriptionId, signalType, 0, detail);
+        }
+
+        private void record(TraceSettings settings, Signal<?> signal) {
+            SignalType signalType = signal.getType();
+
+            if(!settings.signals.contains(signalType))
+                return;
+
+            if(signalType == SignalType.ON_NEXT)
+                sink.record(pipeline, subscriptionId, signalType, ++sequence, signal.get());
+            else
+                sink.record(pipeline, subscriptionId, signalType, 0, signal.getThrowable());
+        }
+    }
+}
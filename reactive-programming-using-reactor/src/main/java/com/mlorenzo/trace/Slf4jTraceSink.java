@@ -0,0 +1,62 @@
+package com.mlorenzo.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import reactor.core.publisher.SignalType;
+
+// Escribe las trazas en el log con el nivel indicado. Si ese nivel no está activo en la configuración del log, el
+// destino se considera desactivado y las subscripciones no se trazan.
+public class Slf4jTraceSink implements TraceSink {
+    private static final String FORMAT = "pipeline={} sub={} signal={} seq={} thread={} detail={}";
+
+    private final Logger logger;
+    private final Level level;
+
+    public Slf4jTraceSink(Level level) {
+        this(LoggerFactory.getLogger("com.mlorenzo.trace"), level);
+    }
+
+    public Slf4jTraceSink(Logger logger, Level level) {
+        this.logger = logger;
+        this.level = level;
+    }
+
+    @Override
+    public void record(String pipeline, long subscriptionId, SignalType signalType, long sequence, Object detail) {
+        Object[] arguments = {pipeline, subscriptionId, signalType, sequence, Thread.currentThread().getName(), detail};
+
+        switch(level) {
+            case ERROR:
+                logger.error(FORMAT, arguments);
+                break;
+            case WARN:
+                logger.warn(FORMAT, arguments);
+                break;
+            case INFO:
+                logger.info(FORMAT, arguments);
+                break;
+            case DEBUG:
+                logger.debug(FORMAT, arguments);
+                break;
+            default:
+                logger.trace(FORMAT, arguments);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        switch(level) {
+            case ERROR:
+                return logger.isErrorEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            default:
+                return logger.isTraceEnabled();
+        }
+    }
+}
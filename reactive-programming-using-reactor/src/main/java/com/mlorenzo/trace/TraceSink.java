@@ -0,0 +1,17 @@
+package com.mlorenzo.trace;
+
+import reactor.core.publisher.SignalType;
+
+// Destino de las trazas de SignalTracer. Cada traza es un registro compacto con el nombre del pipeline, el identificador
+// de la subscripción, el tipo de señal, el número de secuencia del elemento (solo en ON_NEXT) y un detalle opcional
+// (el elemento, la excepción o el número de elementos solicitados).
+@FunctionalInterface
+public interface TraceSink {
+
+    void record(String pipeline, long subscriptionId, SignalType signalType, long sequence, Object detail);
+
+    // Si devuelve false, las subscripciones no se trazan aunque su pipeline esté activado.
+    default boolean isEnabled() {
+        return true;
+    }
+}
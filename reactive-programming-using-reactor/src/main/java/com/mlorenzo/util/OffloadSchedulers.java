@@ -0,0 +1,27 @@
+package com.mlorenzo.util;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+// Planificadores disponibles para derivar las llamadas bloqueantes (por ejemplo, "RevenueService.getRevenue" o
+// "MovieInfoService.movieList") fuera del hilo que ejecuta el pipeline reactivo.
+public class OffloadSchedulers {
+
+    private OffloadSchedulers() {
+    }
+
+    // Planificador por defecto de Reactor para tareas bloqueantes. Limita el número de hilos (10 veces el número de
+    // núcleos) y encola las tareas que no caben.
+    public static Scheduler boundedElastic() {
+        return Schedulers.boundedElastic();
+    }
+
+    // Planificador que ejecuta cada tarea en su propio hilo virtual. Los hilos virtuales son baratos de crear y
+    // liberan el hilo de plataforma mientras esperan, así que las tareas bloqueantes no se encolan.
+    // Nota: Cada llamada crea un planificador nuevo que el llamante tiene que liberar con "dispose".
+    public static Scheduler newVirtualThreadPerTask() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "virtualThreadPerTask");
+    }
+}
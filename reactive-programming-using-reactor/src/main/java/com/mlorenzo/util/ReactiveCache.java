@@ -0,0 +1,151 @@
+package com.mlorenzo.util;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// Caché reactiva con un tamaño máximo (se expulsa la entrada usada hace más tiempo) y un tiempo de vida por entrada.
+// Las cargas concurrentes de una misma clave se comparten, y si una carga termina con error o sin valor la entrada se
+// elimina para que no quede guardada.
+public class ReactiveCache<K, V> {
+    private final int maximumSize;
+    private final long timeToLiveMillis;
+    private final LongSupplier clock;
+    private final Map<K, CacheEntry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReactiveCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::currentTimeMillis);
+    }
+
+    ReactiveCache(int maximumSize, Duration timeToLive, LongSupplier clock) {
+        if(maximumSize <= 0)
+            throw new IllegalArgumentException("maximumSize must be greater than 0");
+
+        this.maximumSize = maximumSize;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.clock = clock;
+        // Con "accessOrder" a true, el LinkedHashMap mantiene sus entradas ordenadas de la menos a la más usada.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if(size() > ReactiveCache.this.maximumSize) {
+                    evictions.increment();
+
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            CacheEntry<V> entry;
+            boolean hit;
+
+            synchronized(entries) {
+                entry = entries.get(key);
+
+                if(entry != null && entry.isExpired(clock.getAsLong())) {
+                    entries.remove(key);
+                    evictions.increment();
+                    entry = null;
+                }
+
+                hit = entry != null;
+
+                if(!hit) {
+                    entry = newEntry(key, loader);
+                    entries.put(key, entry);
+                }
+            }
+
+            if(hit)
+                hits.increment();
+            else
+                misses.increment();
+
+            return entry.value;
+        });
+    }
+
+    public void invalidate(K key) {
+        synchronized(entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized(entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private CacheEntry<V> newEntry(K key, Function<K, Mono<V>> loader) {
+        var holder = new AtomicReference<CacheEntry<V>>();
+
+        Mono<V> value = Mono.defer(() -> loader.apply(key))
+                .doOnSuccess(loaded -> {
+                    if(loaded == null)
+                        remove(key, holder.get());
+                    else
+                        // El tiempo de vida empieza a contar cuando la carga termina.
+                        holder.get().expiresAt = clock.getAsLong() + timeToLiveMillis;
+                })
+                .doOnError(ex -> remove(key, holder.get()))
+                .cache();
+
+        holder.set(new CacheEntry<>(value));
+
+        return holder.get();
+    }
+
+    private void remove(K key, CacheEntry<V> entry) {
+        synchronized(entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static class CacheEntry<V> {
+        private final Mono<V> value;
+        // Mientras la carga está en curso la entrada no caduca.
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private CacheEntry(Mono<V> value) {
+            this.value = value;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
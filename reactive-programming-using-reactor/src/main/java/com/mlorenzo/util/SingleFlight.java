@@ -0,0 +1,48 @@
+package com.mlorenzo.util;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Agrupa las llamadas concurrentes que se hacen con la misma clave para que compartan una única ejecución en curso.
+// La primera subscripción lanza la carga y las que llegan mientras no ha terminado reciben el mismo resultado. Cuando
+// la carga termina, la clave se libera y la siguiente llamada vuelve a lanzar una carga nueva.
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            var candidate = new AtomicReference<Mono<V>>();
+
+            candidate.set(Mono.defer(loader)
+                    // Solo se libera la clave si sigue asociada a esta carga.
+                    .doFinally(signalType -> inFlight.remove(key, candidate.get()))
+                    // El operador "cache" no cancela la carga cuando un subscriptor cancela su subscripción, así que
+                    // el resto de subscriptores siguen recibiendo el resultado.
+                    .cache());
+
+            Mono<V> existing = inFlight.putIfAbsent(key, candidate.get());
+
+            if(existing != null) {
+                coalescedCalls.increment();
+
+                return existing;
+            }
+
+            return candidate.get();
+        });
+    }
+
+    public long getCoalescedCalls() {
+        return coalescedCalls.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,134 @@
+package com.mlorenzo.codec;
+
+import com.mlorenzo.domain.Movie;
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Revenue;
+import com.mlorenzo.domain.Review;
+import com.mlorenzo.exception.CodecException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DomainCodecTest {
+    private final MovieInfo movieInfo = new MovieInfo(100L, "Amélie", 2001,
+            List.of("Audrey Tautou", "Mathieu Kassovitz"), LocalDate.parse("2001-04-25"));
+    private final Review review = new Review(1L, 100L, "Excelente película 🎬", 9.0);
+
+    @Test
+    void movieRoundTripTest() {
+        // given
+        var movie = new Movie(movieInfo, List.of(review, new Review(2L, 100L, "Awesome Movie", 8.9)),
+                new Revenue(100L, 1_000_000, 5_000_000), null);
+        var buffer = ByteBuffer.allocate(DomainCodec.encodedSize(movie));
+
+        // when
+        DomainCodec.encode(movie, buffer);
+        buffer.flip();
+
+        // then
+        assertEquals(movie, DomainCodec.decodeMovie(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void directBufferRoundTripTest() {
+        // given
+        var buffer = ByteBuffer.allocateDirect(DomainCodec.encodedSize(movieInfo) + DomainCodec.encodedSize(review));
+
+        // when
+        DomainCodec.encode(movieInfo, buffer);
+        DomainCodec.encode(review, buffer);
+        buffer.flip();
+
+        // then
+        assertEquals(movieInfo, DomainCodec.decodeMovieInfo(buffer));
+        assertEquals(review, DomainCodec.decodeReview(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void nullFieldsRoundTripTest() {
+        // given
+        var emptyMovieInfo = new MovieInfo();
+        var emptyReview = new Review();
+        var movie = new Movie(null, null, null, "Reviews not available");
+        var buffer = ByteBuffer.allocate(1024);
+
+        // when
+        DomainCodec.encode(emptyMovieInfo, buffer);
+        DomainCodec.encode(emptyReview, buffer);
+        DomainCodec.encode(movie, buffer);
+        buffer.flip();
+
+        // then
+        assertEquals(emptyMovieInfo, DomainCodec.decodeMovieInfo(buffer));
+        assertEquals(emptyReview, DomainCodec.decodeReview(buffer));
+        assertEquals(movie, DomainCodec.decodeMovie(buffer));
+    }
+
+    @Test
+    void viewsReadFieldsInPlaceTest() {
+        // given
+        var buffer = ByteBuffer.allocate(1024);
+
+        DomainCodec.encode(review, buffer);
+        var movieInfoOffset = buffer.position();
+        DomainCodec.encode(movieInfo, buffer);
+
+        // when
+        var reviewView = ReviewView.wrap(buffer, 0);
+        var movieInfoView = MovieInfoView.wrap(buffer, movieInfoOffset);
+
+        // then
+        assertEquals(9.0, reviewView.getRating());
+        assertEquals("Excelente película 🎬", reviewView.getComment());
+        assertEquals(movieInfoOffset, reviewView.length());
+        assertEquals(2001, movieInfoView.getYear());
+        assertEquals(LocalDate.parse("2001-04-25"), movieInfoView.getReleaseDate());
+        assertEquals(List.of("Audrey Tautou", "Mathieu Kassovitz"), movieInfoView.getCast());
+        assertEquals(movieInfoOffset + movieInfoView.length(), buffer.position());
+        // Las vistas no modifican la posición del buffer.
+        assertEquals(movieInfoOffset + DomainCodec.encodedSize(movieInfo), buffer.position());
+    }
+
+    @Test
+    void unsupportedVersionTest() {
+        // given
+        var buffer = ByteBuffer.allocate(DomainCodec.encodedSize(review));
+
+        DomainCodec.encode(review, buffer);
+        buffer.put(DomainCodec.VERSION_OFFSET, (byte) (DomainCodec.VERSION + 1));
+        buffer.flip();
+
+        // then
+        assertThrows(CodecException.class, () -> DomainCodec.decodeReview(buffer));
+    }
+
+    @Test
+    void wrongRecordTypeTest() {
+        // given
+        var buffer = ByteBuffer.allocate(DomainCodec.encodedSize(review));
+
+        DomainCodec.encode(review, buffer);
+        buffer.flip();
+
+        // then
+        assertThrows(CodecException.class, () -> DomainCodec.decodeMovieInfo(buffer));
+    }
+
+    @Test
+    void littleEndianBufferIsRejectedTest() {
+        // given
+        var buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        // then
+        assertThrows(IllegalArgumentException.class, () -> DomainCodec.encode(review, buffer));
+    }
+}
@@ -0,0 +1,58 @@
+package com.mlorenzo.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactDomainTest {
+
+    @Test
+    void compactMovieTest() {
+        // given
+        var movie = new Movie(new MovieInfo(100L, "Batman Begins", 2005, List.of("Christian Bale"),
+                LocalDate.parse("2005-06-15")), List.of(new Review(1L, 100L, "Awesome Movie", 8.9)),
+                new Revenue(100L, 1_000_000, 5_000_000));
+
+        // when
+        var compactMovie = CompactMovie.from(movie);
+
+        // then
+        assertEquals(100L, compactMovie.getMovie().getMovieInfoId());
+        assertTrue(compactMovie.getMovie().hasYear());
+        assertEquals(LocalDate.parse("2005-06-15"), compactMovie.getMovie().getReleaseDate());
+        assertEquals(8.9, compactMovie.getReviewList().get(0).getRating());
+        assertEquals(5_000_000, compactMovie.getRevenue().getBoxOffice());
+    }
+
+    @Test
+    void nullFieldsTest() {
+        // when
+        var compactMovieInfo = CompactMovieInfo.from(new MovieInfo(null, null, null, null, null));
+        var compactReview = CompactReview.from(new Review(null, null, null, null));
+        var compactRevenue = CompactRevenue.from(new Revenue(null, 0, 0));
+        var compactMovie = CompactMovie.from(new Movie(null, null, null));
+
+        // then
+        assertFalse(compactMovieInfo.hasMovieInfoId());
+        assertFalse(compactMovieInfo.hasYear());
+        assertEquals(CompactMovieInfo.UNKNOWN_YEAR, compactMovieInfo.getYear());
+        assertEquals(List.of(), compactMovieInfo.getCast());
+        assertNull(compactMovieInfo.getReleaseDate());
+
+        assertFalse(compactReview.hasReviewId());
+        assertFalse(compactReview.hasMovieInfoId());
+        assertFalse(compactReview.hasRating());
+
+        assertFalse(compactRevenue.hasMovieInfoId());
+
+        assertNull(compactMovie.getMovie());
+        assertTrue(compactMovie.getReviewList().isEmpty());
+        assertNull(compactMovie.getRevenue());
+    }
+}
@@ -0,0 +1,80 @@
+package com.mlorenzo.domain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Informe de la memoria que ocupan las clases del dominio frente a sus versiones compactas, medida con JOL (Java Object
+// Layout). No se ejecuta con el resto de tests: ./gradlew footprintReport
+@Slf4j
+@Tag("footprint")
+class DomainFootprintTest {
+    private static final int REVIEWS = 100_000;
+    private static final int MOVIES = 10_000;
+
+    @Test
+    void reviewFootprintTest() {
+        // given
+        List<Review> reviews = new ArrayList<>(REVIEWS);
+        List<CompactReview> compactReviews = new ArrayList<>(REVIEWS);
+
+        for(long i = 0; i < REVIEWS; i++) {
+            // Valores distintos de los que la JVM guarda en caché al convertir a Long, para que cada uno sea un objeto.
+            var review = new Review(1_000_000 + i, 1_000_000 + i / 10, "Awesome Movie", 5 + (i % 50) / 10.0);
+
+            reviews.add(review);
+            compactReviews.add(CompactReview.from(review));
+        }
+
+        // then
+        var size = report("Review", Review.class, reviews, CompactReview.class, compactReviews, REVIEWS);
+
+        assertTrue(size[1] < size[0]);
+    }
+
+    @Test
+    void movieInfoFootprintTest() {
+        // given
+        List<MovieInfo> movieInfos = new ArrayList<>(MOVIES);
+        List<CompactMovieInfo> compactMovieInfos = new ArrayList<>(MOVIES);
+
+        for(long i = 0; i < MOVIES; i++) {
+            var movieInfo = new MovieInfo(1_000_000 + i, "Batman Begins", 2005,
+                    new ArrayList<>(List.of("Christian Bale", "Michael Cane")),
+                    LocalDate.parse("2005-06-15").plusDays(i));
+
+            movieInfos.add(movieInfo);
+            compactMovieInfos.add(CompactMovieInfo.from(movieInfo));
+        }
+
+        // then
+        var size = report("MovieInfo", MovieInfo.class, movieInfos, CompactMovieInfo.class, compactMovieInfos,
+                MOVIES);
+
+        assertTrue(size[1] < size[0]);
+    }
+
+    // Muestra el tamaño de una instancia de cada clase y el tamaño total de cada lista, incluyendo todos los objetos a
+    // los que hace referencia. Devuelve los tamaños totales de las dos listas.
+    private static long[] report(String name, Class<?> classicClass, List<?> classic, Class<?> compactClass,
+                                 List<?> compact, int count) {
+        var classicSize = GraphLayout.parseInstance(classic).totalSize();
+        var compactSize = GraphLayout.parseInstance(compact).totalSize();
+
+        log.info("{}", ClassLayout.parseClass(classicClass).toPrintable());
+        log.info("{}", ClassLayout.parseClass(compactClass).toPrintable());
+        log.info("{} x {}: classic={} bytes ({} bytes/element), compact={} bytes ({} bytes/element), saving={}%",
+                count, name, classicSize, classicSize / count, compactSize, compactSize / count,
+                100 - compactSize * 100 / classicSize);
+
+        return new long[] {classicSize, compactSize};
+    }
+}
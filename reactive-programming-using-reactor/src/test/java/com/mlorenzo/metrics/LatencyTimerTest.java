@@ -0,0 +1,44 @@
+package com.mlorenzo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyTimerTest {
+
+    @Test
+    void getPercentileTest() {
+        // given
+        var timer = new LatencyTimer();
+
+        // when
+        for(int i = 1; i <= 1000; i++)
+            timer.record(Duration.ofMicros(i));
+
+        // then
+        assertEquals(1000, timer.getCount());
+        assertEquals(Duration.ofMillis(1), timer.getMax());
+        assertWithinBucketError(Duration.ofMicros(500), timer.getPercentile(0.5));
+        assertWithinBucketError(Duration.ofMicros(990), timer.getPercentile(0.99));
+    }
+
+    @Test
+    void bucketUpperBoundTest() {
+        // Los valores pequeños tienen su propio cubo y el resto cae en un cubo cuyo límite superior es mayor o igual.
+        for(long value : new long[] {0, 7, 8, 15, 16, 100, 1L << 40, Long.MAX_VALUE}) {
+            var upperBound = LatencyTimer.bucketUpperBound(LatencyTimer.bucketIndex(value));
+
+            assertTrue(upperBound >= value);
+            assertTrue(upperBound - value <= value / 8);
+        }
+    }
+
+    private void assertWithinBucketError(Duration expected, Duration actual) {
+        var error = Math.abs(actual.toNanos() - expected.toNanos());
+
+        assertTrue(error <= expected.toNanos() / 8, () -> "expected " + expected + " but was " + actual);
+    }
+}
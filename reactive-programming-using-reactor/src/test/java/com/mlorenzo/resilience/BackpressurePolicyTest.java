@@ -0,0 +1,100 @@
+package com.mlorenzo.resilience;
+
+import com.mlorenzo.metrics.InMemoryMetricsRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BackpressurePolicyTest {
+    private final InMemoryMetricsRegistry metricsRegistry = new InMemoryMetricsRegistry();
+
+    // En todos los casos el productor emite 10 elementos al subscribirse, antes de que el subscriptor solicite
+    // ninguno.
+
+    @Test
+    void dropOldestTest() {
+        // given
+        var policy = new BackpressurePolicy("test", BackpressurePolicy.OverflowStrategy.DROP_OLDEST, 3,
+                metricsRegistry);
+
+        // then
+        StepVerifier.create(Flux.range(0, 10).transform(policy::apply), 0)
+                .then(() -> assertEquals(3, policy.getBufferedElements()))
+                .thenRequest(3)
+                .expectNext(7, 8, 9)
+                .verifyComplete();
+        assertEquals(7, policy.getDroppedElements());
+        assertEquals(0, policy.getOverflows());
+        assertEquals(0, policy.getBufferedElements());
+        assertEquals(7, metricsRegistry.counter("backpressure.test.droppedElements").getCount());
+    }
+
+    @Test
+    void dropNewestTest() {
+        // given
+        var policy = new BackpressurePolicy("test", BackpressurePolicy.OverflowStrategy.DROP_NEWEST, 3,
+                metricsRegistry);
+
+        // then
+        StepVerifier.create(Flux.range(0, 10).transform(policy::apply), 0)
+                .thenRequest(3)
+                .expectNext(0, 1, 2)
+                .verifyComplete();
+        assertEquals(7, policy.getDroppedElements());
+    }
+
+    @Test
+    void latestTest() {
+        // given
+        // La capacidad se ignora: solo se guarda el último elemento.
+        var policy = new BackpressurePolicy("test", BackpressurePolicy.OverflowStrategy.LATEST, 5, metricsRegistry);
+
+        // then
+        StepVerifier.create(Flux.range(0, 10).transform(policy::apply), 0)
+                .then(() -> assertEquals(1, policy.getBufferedElements()))
+                .thenRequest(1)
+                .expectNext(9)
+                .verifyComplete();
+        assertEquals(9, policy.getDroppedElements());
+    }
+
+    @Test
+    void errorTest() {
+        // given
+        var policy = new BackpressurePolicy("test", BackpressurePolicy.OverflowStrategy.ERROR, 3, metricsRegistry);
+
+        // then
+        StepVerifier.create(Flux.range(0, 10).transform(policy::apply), 0)
+                .thenRequest(3)
+                .thenConsumeWhile(value -> true)
+                .expectErrorMatches(Exceptions::isOverflow)
+                .verify();
+        assertEquals(1, policy.getOverflows());
+        assertEquals(0, policy.getDroppedElements());
+        assertEquals(0, policy.getBufferedElements());
+    }
+
+    @Test
+    void noOverflowWhenSubscriberKeepsUpTest() {
+        // given
+        var policy = new BackpressurePolicy("test", BackpressurePolicy.OverflowStrategy.DROP_OLDEST, 3,
+                metricsRegistry);
+
+        // then
+        StepVerifier.create(Flux.range(0, 10).transform(policy::apply))
+                .expectNextCount(10)
+                .verifyComplete();
+        assertEquals(0, policy.getDroppedElements());
+        assertEquals(0, policy.getBufferedElements());
+    }
+
+    @Test
+    void invalidCapacityTest() {
+        assertThrows(IllegalArgumentException.class, () -> new BackpressurePolicy("test",
+                BackpressurePolicy.OverflowStrategy.ERROR, 0, metricsRegistry));
+    }
+}
@@ -0,0 +1,200 @@
+package com.mlorenzo.resilience;
+
+import com.mlorenzo.exception.CallNotPermittedException;
+import com.mlorenzo.metrics.InMemoryMetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CircuitBreakerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private InMemoryMetricsRegistry metricsRegistry;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        metricsRegistry = new InMemoryMetricsRegistry();
+        var config = CircuitBreakerConfig.builder()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(0.5)
+                .slowCallRateThreshold(1.0)
+                .slowCallDuration(Duration.ofSeconds(1))
+                .waitDurationInOpenState(Duration.ofSeconds(10))
+                .permittedCallsInHalfOpenState(2)
+                .build();
+        // Usamos un reloj controlado por el test para no tener que esperar.
+        circuitBreaker = new CircuitBreaker("test", config, metricsRegistry, clock::get);
+    }
+
+    @Test
+    void opensWhenFailureRateIsExceededTest() {
+        // given
+        var calls = new AtomicInteger();
+        var failingCall = Mono.<String>defer(() -> {
+            calls.incrementAndGet();
+
+            return Mono.error(new RuntimeException("Failure"));
+        });
+
+        // when
+        callTimes(Mono.just("ok"), 2);
+        callTimes(failingCall, 2);
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        // Con el circuito abierto, la llamada falla sin llegar al servicio.
+        StepVerifier.create(circuitBreaker.decorate(failingCall))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        assertEquals(2, calls.get());
+        assertEquals(1, counter("circuitBreaker.test.transitions.CLOSED_TO_OPEN"));
+        assertEquals(1, counter("circuitBreaker.test.notPermittedCalls"));
+        assertEquals(CircuitBreaker.State.OPEN.ordinal(),
+                metricsRegistry.getGauges().get("circuitBreaker.test.state").getValue());
+    }
+
+    @Test
+    void staysClosedBelowMinimumNumberOfCallsTest() {
+        // when
+        callTimes(Mono.error(new RuntimeException("Failure")), 3);
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void opensWhenSlowCallRateIsExceededTest() {
+        // given
+        // Cada llamada avanza el reloj 2 segundos, así que todas son lentas.
+        var slowCall = Mono.fromSupplier(() -> clock.addAndGet(Duration.ofSeconds(2).toNanos()));
+
+        // when
+        callTimes(slowCall, 4);
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(4, counter("circuitBreaker.test.slowCalls"));
+    }
+
+    @Test
+    void closesAfterSuccessfulCallsInHalfOpenStateTest() {
+        // given
+        callTimes(Mono.error(new RuntimeException("Failure")), 4);
+
+        // when
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        callTimes(Mono.just("ok"), 2);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, counter("circuitBreaker.test.transitions.OPEN_TO_HALF_OPEN"));
+        assertEquals(1, counter("circuitBreaker.test.transitions.HALF_OPEN_TO_CLOSED"));
+    }
+
+    @Test
+    void reopensAfterFailedCallsInHalfOpenStateTest() {
+        // given
+        callTimes(Mono.error(new RuntimeException("Failure")), 4);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // when
+        callTimes(Mono.error(new RuntimeException("Failure")), 2);
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, counter("circuitBreaker.test.transitions.HALF_OPEN_TO_OPEN"));
+    }
+
+    @Test
+    void limitsCallsInHalfOpenStateTest() {
+        // given
+        callTimes(Mono.error(new RuntimeException("Failure")), 4);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // when
+        // Las llamadas de prueba no terminan, así que ocupan los permisos del estado semiabierto.
+        var pendingCalls = Flux.merge(circuitBreaker.decorate(Mono.never()), circuitBreaker.decorate(Mono.never()))
+                .subscribe();
+
+        // then
+        StepVerifier.create(circuitBreaker.decorate(Mono.just("ok")))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        // Al cancelar una llamada de prueba se devuelve su permiso.
+        pendingCalls.dispose();
+
+        StepVerifier.create(circuitBreaker.decorate(Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    @Test
+    void ignoresCallsAdmittedInPreviousStateTest() {
+        // given
+        // Esta llamada se admite con el circuito cerrado y termina cuando el test lo indica.
+        Sinks.One<String> closedStateCall = Sinks.one();
+        var closedStateResult = circuitBreaker.decorate(closedStateCall.asMono()).subscribe();
+
+        callTimes(Mono.error(new RuntimeException("Failure")), 4);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        // when
+        // Su resultado llega en estado semiabierto, pero no cuenta como llamada de prueba.
+        closedStateCall.tryEmitValue("ok");
+        callTimes(Mono.just("ok"), 1);
+
+        // then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        closedStateResult.dispose();
+    }
+
+    @Test
+    void cancelOfCallAdmittedInPreviousStateKeepsHalfOpenPermitsTest() {
+        // given
+        var closedStateCall = circuitBreaker.decorate(Mono.never()).subscribe();
+
+        callTimes(Mono.error(new RuntimeException("Failure")), 4);
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        var pendingCalls = Flux.merge(circuitBreaker.decorate(Mono.never()), circuitBreaker.decorate(Mono.never()))
+                .subscribe();
+
+        // when
+        // La llamada cancelada no tenía ningún permiso del estado semiabierto, así que no puede devolver ninguno.
+        closedStateCall.dispose();
+
+        // then
+        StepVerifier.create(circuitBreaker.decorate(Mono.just("ok")))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+        pendingCalls.dispose();
+    }
+
+    private void callTimes(Mono<?> call, int times) {
+        for(int i = 0; i < times; i++)
+            circuitBreaker.decorate(call)
+                    .onErrorResume(ex -> Mono.empty())
+                    .block();
+    }
+
+    private long counter(String name) {
+        return metricsRegistry.getCounters().get(name).getCount();
+    }
+}
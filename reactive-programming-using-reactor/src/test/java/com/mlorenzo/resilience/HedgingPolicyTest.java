@@ -0,0 +1,108 @@
+package com.mlorenzo.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HedgingPolicyTest {
+
+    @Test
+    void hedgeWinsWhenPrimaryIsSlowTest() {
+        // given
+        var hedgingPolicy = HedgingPolicy.fixedDelay(Duration.ofMillis(50), 0.1);
+        var calls = new AtomicInteger();
+
+        // La primera llamada tarda 1 segundo y la segunda responde inmediatamente.
+        var result = hedgingPolicy.hedge(() -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(1)).thenReturn("primary")
+                : Mono.just("hedge"));
+
+        // then
+        // Con el tiempo virtual los retrasos no dependen de la carga de la máquina.
+        StepVerifier.withVirtualTime(() -> result)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .expectNext("hedge")
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+        assertEquals(1, hedgingPolicy.getHedgesFired());
+        assertEquals(1, hedgingPolicy.getHedgesWon());
+    }
+
+    @Test
+    void hedgeErrorDoesNotBeatPrimaryTest() {
+        // given
+        var hedgingPolicy = HedgingPolicy.fixedDelay(Duration.ofMillis(50), 0.1);
+        var calls = new AtomicInteger();
+
+        // La primera llamada tarda 200 milisegundos y la segunda falla inmediatamente.
+        var result = hedgingPolicy.hedge(() -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(200)).thenReturn("primary")
+                : Mono.<String>error(new RuntimeException("hedge failed")));
+
+        // then
+        StepVerifier.withVirtualTime(() -> result)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(200))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(1, hedgingPolicy.getHedgesFired());
+        assertEquals(0, hedgingPolicy.getHedgesWon());
+    }
+
+    @Test
+    void hedgeIsNotFiredWhenPrimaryIsFastTest() {
+        // given
+        var hedgingPolicy = HedgingPolicy.fixedDelay(Duration.ofMillis(200), 0.1);
+        var calls = new AtomicInteger();
+
+        // when
+        var result = hedgingPolicy.hedge(() -> {
+            calls.incrementAndGet();
+
+            return Mono.just("primary");
+        });
+
+        // then
+        StepVerifier.create(result)
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0, hedgingPolicy.getHedgesFired());
+    }
+
+    @Test
+    void hedgeRespectsBudgetTest() {
+        // given
+        // Con un presupuesto del 10%, cada petición deposita 0,1 fichas antes de intentar lanzar la de cobertura. El
+        // presupuesto empieza lleno, así que el depósito de la primera petición se pierde. Las 10 fichas iniciales
+        // cubren las peticiones 1 a 10 y los depósitos de las peticiones 2 a 11 suman 1 ficha más, que cubre la 11.
+        // Las peticiones 12 a 20 solo depositan 0,9 fichas, que no llegan para otra.
+        var hedgingPolicy = HedgingPolicy.fixedDelay(Duration.ofMillis(10), 0.1);
+        var requests = 20;
+
+        // when
+        for(int i = 0; i < requests; i++) {
+            var calls = new AtomicInteger();
+
+            StepVerifier.withVirtualTime(() -> hedgingPolicy.hedge(() -> calls.incrementAndGet() == 1
+                            ? Mono.delay(Duration.ofMillis(100)).thenReturn("primary")
+                            : Mono.delay(Duration.ofMillis(20)).thenReturn("hedge")))
+                    .thenAwait(Duration.ofMillis(100))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        // then
+        assertEquals(requests, hedgingPolicy.getRequests());
+        assertEquals(HedgingPolicy.MAX_HEDGE_TOKENS + 1, hedgingPolicy.getHedgesFired());
+    }
+}
@@ -0,0 +1,79 @@
+package com.mlorenzo.resilience;
+
+import com.mlorenzo.exception.RequestNotPermittedException;
+import com.mlorenzo.metrics.InMemoryMetricsRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final InMemoryMetricsRegistry metricsRegistry = new InMemoryMetricsRegistry();
+
+    @Test
+    void burstIsPermittedWithoutWaitingTest() {
+        // given
+        // 10 llamadas por segundo (una cada 100 ms) con ráfagas de 3.
+        var rateLimiter = new RateLimiter("test", 10, 3, Duration.ofSeconds(1), metricsRegistry, clock::get);
+
+        // then
+        assertEquals(0, rateLimiter.reservePermission());
+        assertEquals(0, rateLimiter.reservePermission());
+        assertEquals(0, rateLimiter.reservePermission());
+        assertEquals(Duration.ofMillis(100).toNanos(), rateLimiter.reservePermission());
+        assertEquals(Duration.ofMillis(200).toNanos(), rateLimiter.reservePermission());
+    }
+
+    @Test
+    void permitsAreRefilledOverTimeTest() {
+        // given
+        var rateLimiter = new RateLimiter("test", 10, 1, Duration.ZERO, metricsRegistry, clock::get);
+
+        // when
+        assertEquals(0, rateLimiter.reservePermission());
+        assertEquals(-1, rateLimiter.reservePermission());
+
+        clock.addAndGet(Duration.ofMillis(100).toNanos());
+
+        // then
+        assertEquals(0, rateLimiter.reservePermission());
+        assertEquals(1, metricsRegistry.counter("rateLimiter.test.rejectedCalls").getCount());
+    }
+
+    @Test
+    void callIsDelayedOnTimerTest() {
+        // given
+        var rateLimiter = new RateLimiter("test", 1, 1, Duration.ofSeconds(5), metricsRegistry, clock::get);
+
+        rateLimiter.reservePermission();
+
+        // then
+        // La segunda llamada tiene que esperar 1 segundo, pero la espera se hace con un temporizador.
+        StepVerifier.withVirtualTime(() -> rateLimiter.decorate(Mono.just("ok")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertEquals(1, metricsRegistry.counter("rateLimiter.test.delayedCalls").getCount());
+    }
+
+    @Test
+    void callFailsFastWhenWaitExceedsMaxWaitTest() {
+        // given
+        var rateLimiter = new RateLimiter("test", 1, 1, Duration.ofMillis(500), metricsRegistry, clock::get);
+
+        rateLimiter.reservePermission();
+
+        // then
+        StepVerifier.create(rateLimiter.decorate(Mono.just("ok")))
+                .expectError(RequestNotPermittedException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,109 @@
+package com.mlorenzo.resilience;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RetryBudgetTest {
+
+    @Test
+    void budgetIsSharedAcrossSubscriptionsTest() {
+        // given
+        var retryBudget = new RetryBudget(0.1, 2, 3, Duration.ZERO, Duration.ZERO);
+        var calls = new AtomicInteger();
+        var beforeRetry = new AtomicInteger();
+        var failingCall = Mono.defer(() -> {
+            calls.incrementAndGet();
+
+            return Mono.error(new IllegalStateException("Failure"));
+        }).retryWhen(retryBudget.retry(ex -> true, beforeRetry::incrementAndGet));
+
+        // when
+        // Cada subscripción podría reintentar 3 veces, pero entre todas solo hay fichas para 2 reintentos.
+        for(int i = 0; i < 3; i++)
+            StepVerifier.create(failingCall)
+                    .expectError(IllegalStateException.class)
+                    .verify();
+
+        // then
+        assertEquals(5, calls.get());
+        assertEquals(2, retryBudget.getRetries());
+        assertEquals(2, beforeRetry.get());
+        assertEquals(3, retryBudget.getRejectedRetries());
+        assertEquals(0, retryBudget.getRemainingBudget());
+    }
+
+    @Test
+    void successesRefillBudgetTest() {
+        // given
+        var retryBudget = new RetryBudget(0.1, 2, 3, Duration.ZERO, Duration.ZERO);
+        var failingCall = Mono.error(new IllegalStateException("Failure"))
+                .retryWhen(retryBudget.retry(ex -> true, () -> {}));
+
+        StepVerifier.create(failingCall)
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        // when
+        for(int i = 0; i < 15; i++)
+            retryBudget.recordSuccess();
+
+        // then
+        assertEquals(1.5, retryBudget.getRemainingBudget());
+    }
+
+    @Test
+    void budgetDoesNotExceedMaxTokensTest() {
+        // given
+        var retryBudget = new RetryBudget(0.5, 2, 3, Duration.ZERO, Duration.ZERO);
+
+        // when
+        for(int i = 0; i < 10; i++)
+            retryBudget.recordSuccess();
+
+        // then
+        assertEquals(2, retryBudget.getRemainingBudget());
+    }
+
+    @Test
+    void filteredErrorsAreNotRetriedTest() {
+        // given
+        var retryBudget = new RetryBudget(0.1, 2, 3, Duration.ZERO, Duration.ZERO);
+        var calls = new AtomicInteger();
+        var failingCall = Mono.defer(() -> {
+            calls.incrementAndGet();
+
+            return Mono.error(new IllegalStateException("Failure"));
+        }).retryWhen(retryBudget.retry(ex -> ex instanceof IllegalArgumentException, () -> {}));
+
+        // then
+        StepVerifier.create(failingCall)
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(1, calls.get());
+        assertEquals(2, retryBudget.getRemainingBudget());
+    }
+
+    @Test
+    void backoffIsExponentialWithFullJitterTest() {
+        // given
+        var minBackoff = Duration.ofMillis(100);
+        var maxBackoff = Duration.ofSeconds(1);
+        var upperBound = new RetryBudget(0.1, 2, 10, minBackoff, maxBackoff, () -> 1.0);
+        var half = new RetryBudget(0.1, 2, 10, minBackoff, maxBackoff, () -> 0.5);
+
+        // then
+        assertEquals(Duration.ofMillis(100), upperBound.backoff(0));
+        assertEquals(Duration.ofMillis(400), upperBound.backoff(2));
+        // A partir de aquí se alcanza el tiempo máximo.
+        assertEquals(Duration.ofSeconds(1), upperBound.backoff(4));
+        assertEquals(Duration.ofSeconds(1), upperBound.backoff(100));
+        assertEquals(Duration.ofMillis(200), half.backoff(2));
+    }
+}
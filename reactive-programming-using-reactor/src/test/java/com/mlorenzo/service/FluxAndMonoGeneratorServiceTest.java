@@ -1,11 +1,16 @@
 package com.mlorenzo.service;
 
 import com.mlorenzo.exception.ReactorException;
+import com.mlorenzo.metrics.InMemoryMetricsRegistry;
+import com.mlorenzo.resilience.BackpressurePolicy;
 import org.junit.jupiter.api.Test;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class FluxAndMonoGeneratorServiceTest {
     FluxAndMonoGeneratorService fluxAndMonoGeneratorService = new FluxAndMonoGeneratorService();
 
@@ -213,6 +218,26 @@ class FluxAndMonoGeneratorServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getFluxOfTicksWithBackpressurePolicyTest() {
+        // given
+        var policy = new BackpressurePolicy("ticks", BackpressurePolicy.OverflowStrategy.DROP_OLDEST, 2,
+                new InMemoryMetricsRegistry());
+
+        // then
+        // Sin la política, "interval" terminaría con un error al no haber demanda. Con ella, tras 10 números solo se
+        // conservan los 2 últimos.
+        StepVerifier.withVirtualTime(() -> fluxAndMonoGeneratorService.getFluxOfTicksWithBackpressurePolicy(
+                        Duration.ofSeconds(1), policy), 0)
+                .thenAwait(Duration.ofSeconds(10))
+                .thenRequest(2)
+                .expectNext(8L, 9L)
+                .thenCancel()
+                .verify();
+        assertEquals(8, policy.getDroppedElements());
+        assertEquals(0, policy.getBufferedElements());
+    }
+
     @Test
     void getFluxOfStringWithZip1Test() {
         // when
@@ -0,0 +1,290 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Review;
+import com.mlorenzo.store.MappedSegmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedCatalogServiceTest {
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    MappedSegmentStore movieStore;
+    MappedSegmentStore reviewStore;
+    MappedMovieInfoService movieInfoService;
+    MappedReviewService reviewService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        movieStore = MappedSegmentStore.open(directory.resolve("movies"), SEGMENT_SIZE);
+        reviewStore = MappedSegmentStore.open(directory.resolve("reviews"), SEGMENT_SIZE);
+        movieInfoService = new MappedMovieInfoService(movieStore);
+        reviewService = new MappedReviewService(reviewStore);
+
+        for(long movieId = 1; movieId <= 1000; movieId++) {
+            movieInfoService.save(new MovieInfo(movieId, "Movie " + movieId, 2000 + (int) (movieId % 20),
+                    List.of("Actor " + movieId), LocalDate.of(2000, 1, 1).plusDays(movieId)));
+
+            for(long reviewId = 0; reviewId < 3; reviewId++)
+                reviewService.save(new Review(movieId * 10 + reviewId, movieId, "Review " + reviewId, 8.0));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        movieStore.close();
+        reviewStore.close();
+    }
+
+    @Test
+    void retrieveMoviesFluxTest() {
+        StepVerifier.create(movieInfoService.retrieveMoviesFlux())
+                .assertNext(movieInfo -> assertEquals("Movie 1", movieInfo.getName()))
+                .expectNextCount(999)
+                .verifyComplete();
+    }
+
+    @Test
+    void resavedMoviesAreEmittedOnceTest() {
+        // given
+        movieInfoService.save(new MovieInfo(1L, "Movie 1 (remastered)", 2001, List.of("Actor 1"),
+                LocalDate.of(2000, 1, 2)));
+
+        // then
+        // Solo se emite la última versión de la película y el resto del catálogo no cambia.
+        StepVerifier.create(movieInfoService.retrieveMoviesFlux())
+                .assertNext(movieInfo -> assertEquals("Movie 1 (remastered)", movieInfo.getName()))
+                .expectNextCount(999)
+                .verifyComplete();
+        assertEquals(1000, movieInfoService.movieList().size());
+    }
+
+    @Test
+    void retrieveMovieInfoMonoUsingIdTest() {
+        StepVerifier.create(movieInfoService.retrieveMovieInfoMonoUsingId(500L))
+                .assertNext(movieInfo -> {
+                    assertEquals("Movie 500", movieInfo.getName());
+                    assertEquals(List.of("Actor 500"), movieInfo.getCast());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(movieInfoService.retrieveMovieInfoMonoUsingId(5000L))
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveMoviesByYearTest() {
+        // Los años van de 2000 a 2019 según el id de la película, así que hay 50 películas de cada año.
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(2008))
+                .thenConsumeWhile(movieInfo -> movieInfo.getYear() == 2008)
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(2008).count())
+                .expectNext(50L)
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(1990))
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveMoviesByCastMemberTest() {
+        // given
+        movieInfoService.save(new MovieInfo(2000L, "Batman Begins", 2005, List.of("Christian Bale", "Actor 7"),
+                LocalDate.parse("2005-06-15")));
+
+        // then
+        // Los nombres se comparan sin distinguir mayúsculas y minúsculas.
+        StepVerifier.create(movieInfoService.retrieveMoviesByCastMember("actor 7"))
+                .assertNext(movieInfo -> assertEquals(7L, movieInfo.getMovieInfoId()))
+                .assertNext(movieInfo -> assertEquals(2000L, movieInfo.getMovieInfoId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void queriesAreLazyTest() {
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(2008), 0)
+                .expectSubscription()
+                .thenRequest(1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void indexesAreUpdatedWhenMovieChangesTest() {
+        // given
+        movieInfoService.save(new MovieInfo(8L, "Movie 8 (Remastered)", 1990, List.of("New Actor"),
+                LocalDate.parse("1990-01-01")));
+
+        // then
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(1990))
+                .assertNext(movieInfo -> assertEquals("Movie 8 (Remastered)", movieInfo.getName()))
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(2008).count())
+                .expectNext(49L)
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesByCastMember("Actor 8"))
+                .verifyComplete();
+    }
+
+    @Test
+    void movieReturningToPreviousYearIsEmittedOnceTest() {
+        // given
+        // La película 5 es de 2005, pasa a 2008 y vuelve a 2005 con su reparto original.
+        movieInfoService.save(new MovieInfo(5L, "Movie 5", 2008, List.of("Other actor"),
+                LocalDate.parse("2008-01-01")));
+        movieInfoService.save(new MovieInfo(5L, "Movie 5", 2005, List.of("Actor 5"),
+                LocalDate.parse("2005-01-01")));
+
+        // then
+        assertEquals(50, movieInfoService.getYearIndex().get(2005).size());
+        assertEquals(1, movieInfoService.getCastIndex().get("actor 5").size());
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(2005)
+                        .filter(movieInfo -> movieInfo.getMovieInfoId() == 5L))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesByYear(2008).count())
+                .expectNext(50L)
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesByCastMember("Actor 5"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveReviewsFluxTest() {
+        StepVerifier.create(reviewService.retrieveReviewsFlux(42L))
+                .expectNext(new Review(420L, 42L, "Review 0", 8.0), new Review(421L, 42L, "Review 1", 8.0),
+                        new Review(422L, 42L, "Review 2", 8.0))
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveReviewsFluxByMovieIdsTest() {
+        StepVerifier.create(reviewService.retrieveReviewsFluxByMovieIds(List.of(1L, 2L, 3000L)))
+                .expectNextCount(6)
+                .verifyComplete();
+    }
+
+    @Test
+    void indexesAreRebuiltOnStartupTest() {
+        // when
+        var reopenedMovieInfoService = new MappedMovieInfoService(movieStore, 1000);
+        var reopenedReviewService = new MappedReviewService(reviewStore, 1000);
+
+        // then
+        assertEquals(1000, reopenedMovieInfoService.getIdIndex().size());
+        assertEquals(1000, reopenedReviewService.getRangeIndex().size());
+        StepVerifier.create(reopenedMovieInfoService.retrieveMovieInfoMonoUsingId(999L))
+                .assertNext(movieInfo -> assertEquals("Movie 999", movieInfo.getName()))
+                .verifyComplete();
+        StepVerifier.create(reopenedReviewService.retrieveReviewsFlux(999L))
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void scatteredReviewsAreFoundTest() {
+        // given
+        // La película 1 ya tiene reseñas y la nueva no va a continuación de ellas.
+        reviewService.save(new Review(19L, 1L, "Late review", 7.0));
+        reviewService.save(new Review(29L, 2L, "Another late review", 7.0));
+        reviewService.save(new Review(18L, 1L, "Latest review", 7.0));
+        var reopenedReviewService = new MappedReviewService(reviewStore, 1000);
+
+        // then
+        // Las reseñas dispersas se encadenan en el orden del almacén: 4 enlaces para las 5 reseñas de la película 1 y
+        // 3 para las 4 de la película 2.
+        assertEquals(7, reviewService.getNextLocationIndex().size());
+        assertEquals(7, reopenedReviewService.getNextLocationIndex().size());
+        StepVerifier.create(reviewService.retrieveReviewsFlux(1L))
+                .expectNextCount(3)
+                .assertNext(review -> assertEquals("Late review", review.getComment()))
+                .assertNext(review -> assertEquals("Latest review", review.getComment()))
+                .verifyComplete();
+        StepVerifier.create(reopenedReviewService.retrieveReviewsFlux(2L))
+                .expectNextCount(3)
+                .assertNext(review -> assertEquals("Another late review", review.getComment()))
+                .verifyComplete();
+        // Las reseñas de la película 1000 siguen siendo un rango: la nueva reseña no es suya.
+        StepVerifier.create(reviewService.retrieveReviewsFlux(1000L))
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveMoviesPageTest() {
+        // given
+        Long cursor = null;
+        var pages = 0;
+        var movies = 0;
+
+        // when
+        // Se recorre todo el catálogo página a página siguiendo los cursores.
+        do {
+            var page = movieInfoService.retrieveMoviesPage(cursor, 64).block();
+
+            assertEquals(movies + 1, page.getItems().get(0).getMovieInfoId());
+            movies += page.getItems().size();
+            cursor = page.getNextCursor();
+            pages++;
+        } while(cursor != null);
+
+        // then
+        assertEquals(1000, movies);
+        assertEquals(16, pages);
+    }
+
+    @Test
+    void retrieveMoviesPageWithOutOfOrderIdsTest() {
+        // given
+        // El id 500 ya existe, así que solo se actualiza, y el 0 va antes que todos los demás.
+        movieInfoService.save(new MovieInfo(500L, "Movie 500 (remastered)", 2020, List.of(), null));
+        movieInfoService.save(new MovieInfo(0L, "Movie 0", 2000, List.of(), null));
+
+        // then
+        assertEquals(1001, movieInfoService.getMovieIds().size());
+        StepVerifier.create(movieInfoService.retrieveMoviesPage(null, 1))
+                .assertNext(page -> {
+                    assertEquals("Movie 0", page.getItems().get(0).getName());
+                    assertEquals(0L, page.getNextCursor());
+                })
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesPage(499L, 2))
+                .assertNext(page -> {
+                    assertEquals("Movie 500 (remastered)", page.getItems().get(0).getName());
+                    assertEquals(501L, page.getNextCursor());
+                })
+                .verifyComplete();
+        StepVerifier.create(movieInfoService.retrieveMoviesPage(1000L, 10))
+                .assertNext(page -> {
+                    assertEquals(List.of(), page.getItems());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllMoviesFromMappedStoreTest() {
+        // given
+        var movieReactiveService = new MovieReactiveService(movieInfoService, reviewService, new RevenueService());
+
+        // then
+        StepVerifier.create(movieReactiveService.getAllMoviesWithReviewStats().take(10))
+                .thenConsumeWhile(movie -> movie.getReviewStats().getCount() == 3)
+                .verifyComplete();
+    }
+}
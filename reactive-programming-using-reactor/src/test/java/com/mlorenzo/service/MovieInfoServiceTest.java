@@ -0,0 +1,56 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.domain.MovieInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+
+class MovieInfoServiceTest {
+
+    @Test
+    void retrieveMoviesFluxTest() {
+        StepVerifier.create(new MovieInfoService().retrieveMoviesFlux())
+                .assertNext(movieInfo -> assertEquals("Batman Begins", movieInfo.getName()))
+                .assertNext(movieInfo -> assertEquals("The Dark Knight", movieInfo.getName()))
+                .assertNext(movieInfo -> assertEquals("Dark Knight Rises", movieInfo.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveMoviesFluxReadsOnlyRequestedMoviesTest() {
+        // given
+        List<MovieInfo> received = new ArrayList<>();
+
+        // El método estático se sustituye por uno que llama al real para poder contar las lecturas.
+        try(MockedStatic<MovieInfoService> movieInfoService = mockStatic(MovieInfoService.class, CALLS_REAL_METHODS)) {
+            // when
+            // El subscriptor solo solicita 2 elementos y no cancela la subscripción.
+            new MovieInfoService().retrieveMoviesFlux().subscribe(new BaseSubscriber<MovieInfo>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                    request(2);
+                }
+
+                @Override
+                protected void hookOnNext(MovieInfo value) {
+                    received.add(value);
+                }
+            });
+
+            // then
+            assertEquals(2, received.size());
+            movieInfoService.verify(() -> MovieInfoService.readMovieInfo(anyInt()), times(2));
+        }
+    }
+}
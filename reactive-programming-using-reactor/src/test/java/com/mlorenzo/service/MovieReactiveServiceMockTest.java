@@ -1,14 +1,25 @@
 package com.mlorenzo.service;
 
+import com.mlorenzo.domain.MovieChange;
+import com.mlorenzo.domain.MovieInfo;
+import com.mlorenzo.domain.Revenue;
 import com.mlorenzo.exception.NetworkException;
 import com.mlorenzo.exception.ServiceException;
+import com.mlorenzo.resilience.RetryBudget;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +31,9 @@ class MovieReactiveServiceMockTest {
     @Mock
     ReviewService reviewService;
 
+    @Mock
+    RevenueService revenueService;
+
     // Anotación que crea una instancia de MovieReactiveService e inyecta en ella los Mocks anteriores.
     @InjectMocks
     MovieReactiveService movieReactiveService;
@@ -58,6 +72,27 @@ class MovieReactiveServiceMockTest {
                 .verify();
     }
 
+    @Test
+    void getAllMoviesBatchedTest() {
+        // given
+        when(movieInfoService.retrieveMoviesFlux()).thenCallRealMethod();
+        when(reviewService.retrieveReviewsFluxByMovieIds(anyCollection()))
+                .thenAnswer(invocation -> new ReviewService()
+                        .retrieveReviewsFluxByMovieIds(invocation.getArgument(0)));
+
+        // when
+        var fluxOfMovies = movieReactiveService.getAllMoviesBatched(10, Duration.ofSeconds(1));
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .expectNextCount(3)
+                .verifyComplete();
+
+        // Una sola llamada al servicio de reseñas para las 3 películas.
+        verify(reviewService, times(1)).retrieveReviewsFluxByMovieIds(List.of(100L, 101L, 102L));
+        verify(reviewService, never()).retrieveReviewsFlux(anyLong());
+    }
+
     @Test
     void getAllMoviesWithRetryTest() {
         // given
@@ -98,6 +133,39 @@ class MovieReactiveServiceMockTest {
                 .verify();
 
         verify(reviewService, times(4)).retrieveReviewsFlux(anyLong());
+        assertEquals(3, movieReactiveService.getMetricsRegistry()
+                .counter("movieReactiveService.retries").getCount());
+    }
+
+    @Test
+    void getAllMoviesWithRetryWhenSharedBudgetTest() {
+        // given
+        var errorMessage = "Exception occurred in ReviewService";
+        // Presupuesto de un solo reintento compartido por todas las subscripciones.
+        var retryBudget = new RetryBudget(0.1, 1, 3, Duration.ZERO, Duration.ZERO);
+        var service = new MovieReactiveService(movieInfoService, reviewService, revenueService,
+                MovieReactiveServiceConfig.builder().retryBudget(retryBudget).build());
+
+        when(movieInfoService.retrieveMoviesFlux()).thenCallRealMethod();
+        when(reviewService.retrieveReviewsFlux(anyLong()))
+                .thenThrow(new NetworkException(errorMessage));
+
+        // when
+        var fluxOfMovies = service.getAllMoviesWithRetryWhen();
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .expectErrorMessage(errorMessage)
+                .verify();
+        StepVerifier.create(fluxOfMovies)
+                .expectErrorMessage(errorMessage)
+                .verify();
+
+        // La primera subscripción gasta el único reintento y la segunda ya no puede reintentar.
+        verify(reviewService, times(3)).retrieveReviewsFlux(anyLong());
+        assertEquals(1, retryBudget.getRetries());
+        assertEquals(2, retryBudget.getRejectedRetries());
+        assertEquals(1, service.getMetricsRegistry().counter("movieReactiveService.retries").getCount());
     }
 
     @Test
@@ -121,6 +189,44 @@ class MovieReactiveServiceMockTest {
         verify(reviewService, times(1)).retrieveReviewsFlux(anyLong());
     }
 
+    @Test
+    void getAllMoviesWithPerMovieRetryTest() {
+        // given
+        var errorMessage = "Exception occurred in ReviewService";
+
+        when(movieInfoService.retrieveMoviesFlux()).thenCallRealMethod();
+        when(reviewService.retrieveReviewsFlux(anyLong())).thenCallRealMethod();
+        // Solo fallan las reseñas de la película 101.
+        doThrow(new NetworkException(errorMessage)).when(reviewService).retrieveReviewsFlux(101L);
+
+        // when
+        var fluxOfMovies = movieReactiveService.getAllMoviesWithPerMovieRetry();
+
+        // then
+        StepVerifier.create(fluxOfMovies.collectList())
+                .assertNext(movies -> {
+                    assertEquals(3, movies.size());
+
+                    var failedMovie = movies.stream()
+                            .filter(movie -> movie.getMovie().getMovieInfoId() == 101L)
+                            .findFirst()
+                            .orElseThrow();
+
+                    assertEquals(List.of(), failedMovie.getReviewList());
+                    assertEquals(errorMessage, failedMovie.getReviewsError());
+                    assertEquals(2, movies.stream()
+                            .filter(movie -> movie.getReviewsError() == null && movie.getReviewList().size() == 2)
+                            .count());
+                })
+                .verifyComplete();
+
+        // El catálogo se obtiene una sola vez y solo se reintentan las reseñas de la película que falla.
+        verify(movieInfoService, times(1)).retrieveMoviesFlux();
+        verify(reviewService, times(4)).retrieveReviewsFlux(101L);
+        verify(reviewService, times(1)).retrieveReviewsFlux(100L);
+        verify(reviewService, times(1)).retrieveReviewsFlux(102L);
+    }
+
     @Test
     void getAllMoviesWithRepeatTest() {
         // given
@@ -142,6 +248,64 @@ class MovieReactiveServiceMockTest {
         verify(reviewService, times(6)).retrieveReviewsFlux(anyLong());
     }
 
+    @Test
+    void getAllMoviesWithPollingTest() {
+        // given
+        var batmanBegins = new MovieInfo(100L, "Batman Begins", 2005, List.of("Christian Bale"),
+                LocalDate.parse("2005-06-15"));
+        var darkKnight = new MovieInfo(101L, "The Dark Knight", 2008, List.of("Christian Bale"),
+                LocalDate.parse("2008-07-18"));
+        var darkKnightRenamed = new MovieInfo(101L, "The Dark Knight (Remastered)", 2008, List.of("Christian Bale"),
+                LocalDate.parse("2008-07-18"));
+        var darkKnightRises = new MovieInfo(102L, "Dark Knight Rises", 2012, List.of("Christian Bale"),
+                LocalDate.parse("2012-07-20"));
+
+        // Primer ciclo: 100 y 101. Segundo ciclo: 101 cambia, 102 se añade y 100 se elimina. Resto de ciclos: sin
+        // cambios.
+        when(movieInfoService.retrieveMoviesFlux()).thenReturn(Flux.just(batmanBegins, darkKnight),
+                Flux.just(darkKnightRenamed, darkKnightRises));
+        when(reviewService.retrieveReviewsFlux(anyLong())).thenCallRealMethod();
+
+        // then
+        StepVerifier.withVirtualTime(() -> movieReactiveService.getAllMoviesWithPolling(Duration.ofSeconds(10)))
+                .assertNext(change -> assertChange(change, MovieChange.Type.ADDED, 100L))
+                .assertNext(change -> assertChange(change, MovieChange.Type.ADDED, 101L))
+                .thenAwait(Duration.ofSeconds(10))
+                .assertNext(change -> assertChange(change, MovieChange.Type.CHANGED, 101L))
+                .assertNext(change -> assertChange(change, MovieChange.Type.ADDED, 102L))
+                .assertNext(change -> assertChange(change, MovieChange.Type.REMOVED, 100L))
+                // Los ciclos sin cambios no emiten nada.
+                .expectNoEvent(Duration.ofSeconds(30))
+                .thenCancel()
+                .verify();
+
+        verify(movieInfoService, atLeast(4)).retrieveMoviesFlux();
+    }
+
+    @Test
+    void getAllMoviesWithPollingSurvivesFailedCycleTest() {
+        // given
+        var batmanBegins = new MovieInfo(100L, "Batman Begins", 2005, List.of("Christian Bale"),
+                LocalDate.parse("2005-06-15"));
+
+        // El primer ciclo falla con un error que no se reintenta y el segundo funciona.
+        when(movieInfoService.retrieveMoviesFlux()).thenReturn(Flux.error(new RuntimeException("Catalog down")),
+                Flux.just(batmanBegins));
+        when(reviewService.retrieveReviewsFlux(anyLong())).thenCallRealMethod();
+
+        // then
+        StepVerifier.withVirtualTime(() -> movieReactiveService.getAllMoviesWithPolling(Duration.ofSeconds(10)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofSeconds(9))
+                .thenAwait(Duration.ofSeconds(1))
+                .assertNext(change -> assertChange(change, MovieChange.Type.ADDED, 100L))
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, movieReactiveService.getMetricsRegistry()
+                .counter("movieReactiveService.failedPollingCycles").getCount());
+    }
+
     @Test
     void getAllMoviesWithRepeatNTimesTest() {
         // given
@@ -160,4 +324,37 @@ class MovieReactiveServiceMockTest {
 
         verify(reviewService, times(9)).retrieveReviewsFlux(anyLong());
     }
+
+    @Test
+    void getMovieByIdWithRevenueCoalescedTest() {
+        // given
+        var movieId = 100L;
+
+        when(movieInfoService.retrieveMovieInfoMonoUsingId(anyLong())).thenCallRealMethod();
+        when(reviewService.retrieveReviewsFlux(anyLong())).thenCallRealMethod();
+        // Simulamos una llamada lenta para que las dos subscripciones coincidan en el tiempo.
+        when(revenueService.getRevenueMono(anyLong())).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(200))
+                .map(tick -> Revenue.builder()
+                        .movieInfoId(invocation.getArgument(0))
+                        .budget(1000000)
+                        .boxOffice(5000000)
+                        .build()));
+
+        // when
+        var fluxOfMovies = Flux.merge(movieReactiveService.getMovieByIdWithRevenueCoalesced(movieId),
+                movieReactiveService.getMovieByIdWithRevenueCoalesced(movieId));
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .expectNextCount(2)
+                .verifyComplete();
+
+        verify(revenueService, times(1)).getRevenueMono(movieId);
+        assertEquals(1, movieReactiveService.getCoalescedCalls());
+    }
+
+    private static void assertChange(MovieChange change, MovieChange.Type type, Long movieInfoId) {
+        assertEquals(type, change.getType());
+        assertEquals(movieInfoId, change.getMovieInfoId());
+    }
 }
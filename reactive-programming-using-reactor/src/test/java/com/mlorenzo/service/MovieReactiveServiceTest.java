@@ -1,14 +1,27 @@
 package com.mlorenzo.service;
 
 import com.mlorenzo.domain.Movie;
+import com.mlorenzo.domain.MovieEvent;
+import com.mlorenzo.domain.Review;
+import com.mlorenzo.metrics.InMemoryMetricsRegistry;
+import com.mlorenzo.resilience.BackpressurePolicy;
+import com.mlorenzo.resilience.CircuitBreaker;
+import com.mlorenzo.resilience.CircuitBreakerConfig;
+import com.mlorenzo.resilience.RateLimiter;
+import com.mlorenzo.util.OffloadSchedulers;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.Collection;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class MovieReactiveServiceTest {
     MovieReactiveService movieReactiveService;
@@ -43,6 +56,236 @@ class MovieReactiveServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getAllMoviesWithReviewStatsTest() {
+        // when
+        var fluxOfMovies = movieReactiveService.getAllMoviesWithReviewStats();
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .expectNextCount(2)
+                .assertNext(movie -> {
+                    assertEquals(2, movie.getReviewStats().getCount());
+                    assertEquals(8.95, movie.getReviewStats().getMeanRating(), 1e-9);
+                    assertEquals(8.9, movie.getReviewStats().getMinRating());
+                    assertEquals(9.0, movie.getReviewStats().getMaxRating());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getMoviesPageTest() {
+        // then
+        StepVerifier.create(movieReactiveService.getMoviesPage(null, 2))
+                .assertNext(page -> {
+                    assertEquals(2, page.getItems().size());
+                    assertEquals(100L, page.getItems().get(0).getMovie().getMovieInfoId());
+                    assertEquals(2, page.getItems().get(0).getReviewList().size());
+                    assertEquals(101L, page.getNextCursor());
+                })
+                .verifyComplete();
+        // La última página no tiene cursor.
+        StepVerifier.create(movieReactiveService.getMoviesPage(101L, 2))
+                .assertNext(page -> {
+                    assertEquals(1, page.getItems().size());
+                    assertEquals(102L, page.getItems().get(0).getMovie().getMovieInfoId());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllMoviesWithRepeatNTimesAndLatestPolicyTest() {
+        // given
+        var policy = new BackpressurePolicy("movies", BackpressurePolicy.OverflowStrategy.LATEST, 1,
+                new InMemoryMetricsRegistry());
+        var config = MovieReactiveServiceConfig.builder()
+                .movieBackpressurePolicy(policy)
+                .build();
+        var latestMovieReactiveService = new MovieReactiveService(new MovieInfoService(), new ReviewService(),
+                new RevenueService(), config);
+
+        // then
+        // Los servicios son síncronos, así que las 4 vueltas del catálogo (12 películas) se producen al subscribirse
+        // y solo se conserva la última película.
+        StepVerifier.create(latestMovieReactiveService.getAllMoviesWithRepeatNTimes(3), 0)
+                .thenRequest(1)
+                .assertNext(movie -> assertEquals("Dark Knight Rises", movie.getMovie().getName()))
+                .verifyComplete();
+        assertEquals(11, policy.getDroppedElements());
+    }
+
+    @Test
+    void getAllMoviesWithPollingAppliesPolicyOnceTest() {
+        // given
+        var metricsRegistry = new InMemoryMetricsRegistry();
+        var policy = new BackpressurePolicy("changes", BackpressurePolicy.OverflowStrategy.DROP_NEWEST, 2,
+                metricsRegistry);
+        var config = MovieReactiveServiceConfig.builder()
+                .movieBackpressurePolicy(policy)
+                .build();
+        var pollingMovieReactiveService = new MovieReactiveService(new MovieInfoService(), new ReviewService(),
+                new RevenueService(), config);
+
+        // then
+        // La política solo se aplica a los cambios que se emiten. El primer ciclo produce 3 cambios sin demanda, así
+        // que se guardan 2 y se descarta 1. Las películas de cada ciclo no pasan por ningún otro buffer de la
+        // política, así que sus métricas solo reflejan los cambios.
+        StepVerifier.withVirtualTime(() -> pollingMovieReactiveService.getAllMoviesWithPolling(Duration.ofSeconds(10)),
+                        0)
+                .expectSubscription()
+                .then(() -> assertEquals(2, policy.getBufferedElements()))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .then(() -> assertEquals(0, policy.getBufferedElements()))
+                .thenRequest(1)
+                // El segundo ciclo no encuentra cambios.
+                .thenAwait(Duration.ofSeconds(10))
+                .expectNoEvent(Duration.ofSeconds(1))
+                .thenCancel()
+                .verify();
+        assertEquals(1, policy.getDroppedElements());
+        assertEquals(0, metricsRegistry.counter("backpressure.changes.overflows").getCount());
+    }
+
+    @Test
+    void getAllMoviesMetricsTest() {
+        // given
+        var metricsRegistry = new InMemoryMetricsRegistry();
+        var config = MovieReactiveServiceConfig.builder()
+                .metricsRegistry(metricsRegistry)
+                .build();
+        var instrumentedMovieReactiveService = new MovieReactiveService(new MovieInfoService(), new ReviewService(),
+                new RevenueService(), config);
+
+        // when
+        StepVerifier.create(instrumentedMovieReactiveService.getAllMovies())
+                .expectNextCount(3)
+                .verifyComplete();
+
+        // then
+        assertEquals(1, metricsRegistry.counter("movieInfoService.retrieveMoviesFlux.calls").getCount());
+        assertEquals(3, metricsRegistry.counter("reviewService.retrieveReviewsFlux.calls").getCount());
+        assertEquals(0, metricsRegistry.counter("reviewService.retrieveReviewsFlux.errors").getCount());
+        assertEquals(0, metricsRegistry.gauge("reviewService.retrieveReviewsFlux.inFlight").getValue());
+        assertEquals(3, metricsRegistry.timer("reviewService.retrieveReviewsFlux.latency").getCount());
+    }
+
+    @Test
+    void getAllMoviesBatchedTest() {
+        // when
+        Flux<Movie> fluxOfMovies = movieReactiveService.getAllMoviesBatched(2, Duration.ofMillis(100));
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .assertNext(movie -> {
+                    assertEquals("Batman Begins", movie.getMovie().getName());
+                    assertEquals(2, movie.getReviewList().size());
+                })
+                .assertNext(movie -> {
+                    assertEquals("The Dark Knight", movie.getMovie().getName());
+                    assertEquals(2, movie.getReviewList().size());
+                })
+                .assertNext(movie -> {
+                    assertEquals("Dark Knight Rises", movie.getMovie().getName());
+                    assertEquals(2, movie.getReviewList().size());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllMoviesOrderedTest() {
+        // given
+        // Las reseñas de las primeras películas tardan más en llegar, así que sin mantener el orden las películas se
+        // emitirían al revés.
+        var slowReviewService = new ReviewService() {
+            @Override
+            public Flux<Review> retrieveReviewsFlux(long movieInfoId) {
+                return super.retrieveReviewsFlux(movieInfoId)
+                        .delaySubscription(Duration.ofMillis((103 - movieInfoId) * 100));
+            }
+        };
+        var config = MovieReactiveServiceConfig.builder()
+                .concurrency(3)
+                .prefetch(1)
+                .ordered(true)
+                .build();
+        var orderedMovieReactiveService = new MovieReactiveService(new MovieInfoService(), slowReviewService,
+                new RevenueService(), config);
+
+        // when
+        Flux<Movie> fluxOfMovies = orderedMovieReactiveService.getAllMovies();
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .assertNext(movie -> assertEquals("Batman Begins", movie.getMovie().getName()))
+                .assertNext(movie -> assertEquals("The Dark Knight", movie.getMovie().getName()))
+                .assertNext(movie -> assertEquals("Dark Knight Rises", movie.getMovie().getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllMoviesBatchedKeepsOrderTest() {
+        // given
+        // Con lotes de una película, el lote de la primera película es el que más tarda. Aunque la configuración no
+        // pide mantener el orden, los lotes se emiten en el orden en que llegan.
+        var slowReviewService = new ReviewService() {
+            @Override
+            public Flux<Review> retrieveReviewsFluxByMovieIds(Collection<Long> movieInfoIds) {
+                long movieInfoId = movieInfoIds.iterator().next();
+
+                return super.retrieveReviewsFluxByMovieIds(movieInfoIds)
+                        .delaySubscription(Duration.ofMillis((103 - movieInfoId) * 100));
+            }
+        };
+        var config = MovieReactiveServiceConfig.builder()
+                .concurrency(3)
+                .ordered(false)
+                .build();
+        var batchedMovieReactiveService = new MovieReactiveService(new MovieInfoService(), slowReviewService,
+                new RevenueService(), config);
+
+        // when
+        Flux<Movie> fluxOfMovies = batchedMovieReactiveService.getAllMoviesBatched(1, Duration.ofMillis(100));
+
+        // then
+        StepVerifier.create(fluxOfMovies)
+                .assertNext(movie -> assertEquals("Batman Begins", movie.getMovie().getName()))
+                .assertNext(movie -> assertEquals("The Dark Knight", movie.getMovie().getName()))
+                .assertNext(movie -> assertEquals("Dark Knight Rises", movie.getMovie().getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void rateLimiterWaitIsNotCountedAsSlowCallTest() {
+        // given
+        // El limitador deja pasar una llamada cada 50 ms, así que las reseñas de la segunda y la tercera película
+        // esperan 50 y 100 ms. Con el limitador dentro del cortocircuito, esas esperas contarían como llamadas lentas
+        // (más de 40 ms) y el cortocircuito se abriría aunque ReviewService responde inmediatamente.
+        var metricsRegistry = new InMemoryMetricsRegistry();
+        var circuitBreaker = new CircuitBreaker("reviews", CircuitBreakerConfig.builder()
+                .slidingWindowSize(3)
+                .minimumNumberOfCalls(3)
+                .slowCallDuration(Duration.ofMillis(40))
+                .slowCallRateThreshold(0.5)
+                .build(), metricsRegistry);
+        var config = MovieReactiveServiceConfig.builder()
+                .metricsRegistry(metricsRegistry)
+                .reviewCircuitBreaker(circuitBreaker)
+                .reviewRateLimiter(new RateLimiter("reviews", 20, 1, Duration.ofSeconds(1), metricsRegistry))
+                .build();
+        var limitedMovieReactiveService = new MovieReactiveService(new MovieInfoService(), new ReviewService(),
+                new RevenueService(), config);
+
+        // then
+        StepVerifier.create(limitedMovieReactiveService.getAllMovies())
+                .expectNextCount(3)
+                .verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, metricsRegistry.counter("circuitBreaker.reviews.slowCalls").getCount());
+        assertEquals(2, metricsRegistry.counter("rateLimiter.reviews.delayedCalls").getCount());
+    }
+
     @Test
     void getMovieByIdWithZipWithTest() {
         // given
@@ -79,6 +322,44 @@ class MovieReactiveServiceTest {
                 .verify();
     }
 
+    @Test
+    void getMovieByIdStreamingTest() {
+        // given
+        long movieId = 100L;
+
+        // when
+        Flux<MovieEvent> fluxOfEvents = movieReactiveService.getMovieByIdStreaming(movieId, 1);
+
+        // then
+        StepVerifier.create(fluxOfEvents)
+                .assertNext(event -> {
+                    assertEquals(MovieEvent.Type.MOVIE_INFO, event.getType());
+                    assertEquals("Batman Begins", event.getMovieInfo().getName());
+                })
+                .assertNext(event -> {
+                    assertEquals(MovieEvent.Type.REVIEWS, event.getType());
+                    assertEquals(1, event.getReviews().size());
+                })
+                .assertNext(event -> {
+                    assertEquals(MovieEvent.Type.REVIEWS, event.getType());
+                    assertEquals(1, event.getReviews().size());
+                })
+                .assertNext(event -> assertEquals(MovieEvent.Type.END, event.getType()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllMoviesStreamingTest() {
+        // when
+        Flux<MovieEvent> fluxOfEvents = movieReactiveService.getAllMoviesStreaming(10);
+
+        // then
+        // Por cada una de las 3 películas: un evento con su información, un bloque con sus 2 reseñas y el evento END.
+        StepVerifier.create(fluxOfEvents)
+                .expectNextCount(9)
+                .verifyComplete();
+    }
+
     @Test
     void getMovieByIdWithRevenueTest() {
         // given
@@ -97,4 +378,51 @@ class MovieReactiveServiceTest {
                 .expectComplete()
                 .verify();
     }
+
+    @Test
+    void getMovieByIdWithRevenueVirtualTimeTest() {
+        // given
+        long movieId = 100L;
+
+        // then
+        // Como el retraso de los ingresos se simula con un temporizador, podemos usar un reloj virtual y avanzar el
+        // tiempo sin esperar realmente 1 segundo.
+        StepVerifier.withVirtualTime(() -> movieReactiveService.getMovieByIdWithRevenue(movieId))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .assertNext(movie -> assertNotNull(movie.getRevenue()))
+                .verifyComplete();
+    }
+
+    // Hace 1000 llamadas bloqueantes reales de 1 segundo, así que no se ejecuta con el resto de tests:
+    // ./gradlew schedulerComparison
+    @Test
+    @Tag("comparison")
+    void getMovieByIdWithBlockingRevenueOnVirtualThreadsTest() {
+        // given
+        var requests = 1000;
+        var virtualThreadScheduler = OffloadSchedulers.newVirtualThreadPerTask();
+        var config = MovieReactiveServiceConfig.builder()
+                .blockingScheduler(virtualThreadScheduler)
+                .build();
+        var movieReactiveServiceOnVirtualThreads = new MovieReactiveService(new MovieInfoService(),
+                new ReviewService(), new RevenueService(), config);
+
+        // when
+        Flux<Movie> fluxOfMovies = Flux.range(0, requests)
+                .flatMap(i -> movieReactiveServiceOnVirtualThreads.getMovieByIdWithBlockingRevenue(100L), requests);
+
+        // then
+        // Cada llamada bloquea su hilo durante 1 segundo, pero al tener cada una su propio hilo virtual todas se
+        // ejecutan a la vez en lugar de encolarse.
+        try {
+            StepVerifier.create(fluxOfMovies)
+                    .expectNextCount(requests)
+                    .expectComplete()
+                    .verify(Duration.ofSeconds(10));
+        } finally {
+            virtualThreadScheduler.dispose();
+        }
+    }
 }
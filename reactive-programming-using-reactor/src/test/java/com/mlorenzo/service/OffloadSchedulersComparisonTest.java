@@ -0,0 +1,88 @@
+package com.mlorenzo.service;
+
+import com.mlorenzo.domain.Revenue;
+import com.mlorenzo.util.OffloadSchedulers;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static com.mlorenzo.util.CommonUtil.delay;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Comparativa de rendimiento (peticiones por segundo) y latencia (percentiles 50 y 99) entre el planificador
+// "boundedElastic" y el planificador de hilos virtuales para llamadas bloqueantes concurrentes. No se ejecuta con el
+// resto de tests porque tarda bastante: ./gradlew schedulerComparison
+@Slf4j
+@Tag("comparison")
+class OffloadSchedulersComparisonTest {
+    // Retraso de cada llamada bloqueante. Es menor que el de RevenueService para que la comparativa no tarde demasiado.
+    private static final int BLOCKING_DELAY_MS = 100;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000})
+    void compareSchedulersTest(int requests) {
+        var boundedElastic = run("boundedElastic", requests, OffloadSchedulers::boundedElastic);
+        var virtualThreads = run("virtualThreadPerTask", requests, OffloadSchedulers::newVirtualThreadPerTask);
+
+        log.info("requests={} speedup={}", requests, String.format("%.1fx", virtualThreads / boundedElastic));
+    }
+
+    // Devuelve el número de peticiones por segundo.
+    private double run(String name, int requests, Supplier<Scheduler> schedulerSupplier) {
+        var scheduler = schedulerSupplier.get();
+        var service = new MovieReactiveService(new MovieInfoService(), new ReviewService(), new RevenueService() {
+            @Override
+            public Revenue getRevenue(Long movieId) {
+                delay(BLOCKING_DELAY_MS);
+
+                return Revenue.builder().movieInfoId(movieId).build();
+            }
+        }, MovieReactiveServiceConfig.builder().blockingScheduler(scheduler).build());
+
+        try {
+            var start = System.nanoTime();
+            var latencies = Flux.range(0, requests)
+                    .flatMap(i -> Mono.defer(() -> {
+                        var requestStart = System.nanoTime();
+
+                        return service.getMovieByIdWithBlockingRevenue(100L)
+                                .map(movie -> System.nanoTime() - requestStart);
+                    }), requests)
+                    .collectList()
+                    .block();
+            var elapsedNanos = System.nanoTime() - start;
+
+            assertEquals(requests, latencies.size());
+
+            var sortedLatencies = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sortedLatencies);
+
+            var throughput = requests / (elapsedNanos / 1_000_000_000d);
+
+            log.info("scheduler={} requests={} throughput={} req/s p50={} ms p99={} ms", name, requests,
+                    String.format("%.0f", throughput),
+                    Duration.ofNanos(percentile(sortedLatencies, 0.50)).toMillis(),
+                    Duration.ofNanos(percentile(sortedLatencies, 0.99)).toMillis());
+
+            return throughput;
+        } finally {
+            // El planificador "boundedElastic" es compartido y no se debe liberar.
+            if(!name.equals("boundedElastic"))
+                scheduler.dispose();
+        }
+    }
+
+    private long percentile(long[] sortedValues, double percentile) {
+        var index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+
+        return sortedValues[Math.max(index, 0)];
+    }
+}
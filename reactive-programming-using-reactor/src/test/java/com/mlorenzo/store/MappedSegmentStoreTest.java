@@ -0,0 +1,111 @@
+package com.mlorenzo.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedSegmentStoreTest {
+    // Cabecera de 16 bytes y sitio para 4 registros de un long (4 bytes de longitud + 8 bytes de datos).
+    private static final int SEGMENT_SIZE = 16 + 4 * 12;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadInOrderAcrossSegmentsTest() throws IOException {
+        // given
+        try(var store = MappedSegmentStore.open(directory, SEGMENT_SIZE)) {
+            for(long i = 0; i < 10; i++)
+                appendLong(store, i);
+
+            // then
+            assertEquals(3, store.getSegmentCount());
+            StepVerifier.create(store.read(ByteBuffer::getLong))
+                    .expectNext(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void recordsSurviveReopeningTest() throws IOException {
+        // given
+        try(var store = MappedSegmentStore.open(directory, SEGMENT_SIZE)) {
+            for(long i = 0; i < 6; i++)
+                appendLong(store, i);
+        }
+
+        // when
+        try(var store = MappedSegmentStore.open(directory, SEGMENT_SIZE)) {
+            appendLong(store, 6L);
+
+            // then
+            StepVerifier.create(store.read(ByteBuffer::getLong))
+                    .expectNext(0L, 1L, 2L, 3L, 4L, 5L, 6L)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void readRespectsBackpressureTest() throws IOException {
+        // given
+        try(var store = MappedSegmentStore.open(directory, SEGMENT_SIZE)) {
+            for(long i = 0; i < 10; i++)
+                appendLong(store, i);
+
+            // then
+            StepVerifier.create(store.read(ByteBuffer::getLong), 0)
+                    .expectSubscription()
+                    .expectNoEvent(java.time.Duration.ofMillis(10))
+                    .thenRequest(2)
+                    .expectNext(0L, 1L)
+                    .thenRequest(1)
+                    .expectNext(2L)
+                    .thenCancel()
+                    .verify();
+        }
+    }
+
+    @Test
+    void skippedRecordsAreNotEmittedTest() throws IOException {
+        // given
+        try(var store = MappedSegmentStore.open(directory, SEGMENT_SIZE)) {
+            for(long i = 0; i < 10; i++)
+                appendLong(store, i);
+
+            // then
+            StepVerifier.create(store.read((buffer, offset) -> buffer.getLong(offset) % 3 == 0
+                            ? buffer.getLong(offset)
+                            : null))
+                    .expectNext(0L, 3L, 6L, 9L)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void tooLargeRecordIsRejectedTest() throws IOException {
+        try(var store = MappedSegmentStore.open(directory, SEGMENT_SIZE)) {
+            assertThrows(IllegalArgumentException.class, () -> store.append(SEGMENT_SIZE, buffer -> {}));
+        }
+    }
+
+    @Test
+    void foreignFileIsRejectedTest() throws IOException {
+        // given
+        Files.write(directory.resolve("segment-00000000.dat"), new byte[64]);
+
+        // then
+        assertThrows(IOException.class, () -> MappedSegmentStore.open(directory, SEGMENT_SIZE));
+    }
+
+    private static void appendLong(MappedSegmentStore store, long value) {
+        store.append(Long.BYTES, buffer -> buffer.putLong(value));
+    }
+}
@@ -0,0 +1,92 @@
+package com.mlorenzo.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapLongIndexTest {
+
+    @Test
+    void putAndGetWithResizeTest() {
+        // given
+        // El índice empieza pequeño para que se tenga que agrandar varias veces.
+        var index = new OffHeapLongIndex(2, 1);
+
+        // when
+        for(long key = -1000; key < 100_000; key++)
+            index.put(key, key * 2, key * 3);
+
+        // then
+        assertEquals(101_000, index.size());
+
+        for(long key = -1000; key < 100_000; key++) {
+            assertEquals(key * 2, index.get(key, 0));
+            assertEquals(key * 3, index.get(key, 1));
+        }
+
+        assertFalse(index.containsKey(100_000));
+        assertEquals(OffHeapLongIndex.MISSING, index.get(100_000, 0));
+    }
+
+    @Test
+    void putReplacesValuesTest() {
+        // given
+        var index = new OffHeapLongIndex(2, 16);
+
+        index.put(7, 1, 2);
+
+        // when
+        index.put(7, 3, 4);
+        index.set(7, 1, 5);
+
+        // then
+        assertEquals(1, index.size());
+        assertEquals(3, index.get(7, 0));
+        assertEquals(5, index.get(7, 1));
+    }
+
+    @Test
+    void invalidArgumentsTest() {
+        var index = new OffHeapLongIndex(1, 16);
+
+        assertThrows(IllegalArgumentException.class, () -> index.put(Long.MIN_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.put(1, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> index.set(1, 0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.get(1, 1));
+    }
+
+    @Test
+    void concurrentReadsDuringWritesTest() throws InterruptedException {
+        // given
+        var index = new OffHeapLongIndex(1, 1);
+        var inconsistentReads = new AtomicLong();
+        var writer = new Thread(() -> {
+            for(long key = 0; key < 500_000; key++)
+                index.put(key, key + 1);
+        });
+
+        // when
+        writer.start();
+
+        while(writer.isAlive()) {
+            for(long key = 0; key < 1000; key++) {
+                var value = index.get(key, 0);
+
+                // Un lector puede no ver todavía una clave, pero si la ve tiene que ver su valor.
+                if(value != OffHeapLongIndex.MISSING && value != key + 1)
+                    inconsistentReads.incrementAndGet();
+            }
+        }
+
+        writer.join();
+
+        // then
+        assertEquals(0, inconsistentReads.get());
+        assertTrue(index.containsKey(499_999));
+    }
+}
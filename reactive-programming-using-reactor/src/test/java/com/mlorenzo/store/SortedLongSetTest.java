@@ -0,0 +1,71 @@
+package com.mlorenzo.store;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedLongSetTest {
+
+    @Test
+    void addKeepsValuesSortedTest() {
+        // given
+        var set = new SortedLongSet();
+
+        // when
+        for(long value = 0; value < 100; value += 2)
+            set.add(value);
+
+        // Los valores fuera de orden se insertan en su posición y los repetidos se ignoran.
+        assertTrue(set.add(51));
+        assertTrue(set.add(-1));
+        assertFalse(set.add(10));
+
+        // then
+        var snapshot = set.snapshot();
+
+        assertEquals(52, snapshot.size());
+        assertEquals(-1, snapshot.get(0));
+
+        for(int index = 1; index < snapshot.size(); index++)
+            assertTrue(snapshot.get(index - 1) < snapshot.get(index));
+    }
+
+    @Test
+    void indexAfterTest() {
+        // given
+        var set = new SortedLongSet();
+
+        for(long value = 10; value <= 50; value += 10)
+            set.add(value);
+
+        var snapshot = set.snapshot();
+
+        // then
+        assertEquals(0, snapshot.indexAfter(Long.MIN_VALUE));
+        assertEquals(1, snapshot.indexAfter(10));
+        assertEquals(2, snapshot.indexAfter(25));
+        assertEquals(5, snapshot.indexAfter(50));
+    }
+
+    @Test
+    void snapshotIsNotAffectedByLaterAddsTest() {
+        // given
+        var set = new SortedLongSet();
+
+        set.add(1);
+        set.add(3);
+
+        var snapshot = set.snapshot();
+
+        // when
+        set.add(2);
+        set.add(4);
+
+        // then
+        assertEquals(2, snapshot.size());
+        assertEquals(3, snapshot.get(1));
+        assertEquals(4, set.size());
+    }
+}
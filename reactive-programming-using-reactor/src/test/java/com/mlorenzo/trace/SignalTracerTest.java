@@ -0,0 +1,81 @@
+package com.mlorenzo.trace;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignalTracerTest {
+    private final List<SignalType> recordedSignals = new CopyOnWriteArrayList<>();
+    private final SignalTracer signalTracer = new SignalTracer(
+            (pipeline, subscriptionId, signalType, sequence, detail) -> recordedSignals.add(signalType));
+
+    @Test
+    void disabledPipelineIsNotTracedTest() {
+        // when
+        var fluxOfNames = Flux.just("alex", "ben").transform(signalTracer.flux("names"));
+
+        // then
+        StepVerifier.create(fluxOfNames)
+                .expectNext("alex", "ben")
+                .verifyComplete();
+
+        assertTrue(recordedSignals.isEmpty());
+    }
+
+    @Test
+    void enabledPipelineIsTracedTest() {
+        // given
+        var fluxOfNames = Flux.just("alex", "ben").transform(signalTracer.flux("names"));
+
+        // when
+        // El pipeline se activa después de haberlo creado, como se haría en tiempo de ejecución.
+        signalTracer.enable("names");
+
+        // then
+        StepVerifier.create(fluxOfNames)
+                .expectNext("alex", "ben")
+                .verifyComplete();
+
+        assertEquals(List.of(SignalType.ON_SUBSCRIBE, SignalType.REQUEST, SignalType.ON_NEXT, SignalType.ON_NEXT,
+                SignalType.ON_COMPLETE), recordedSignals);
+    }
+
+    @Test
+    void enabledPipelineRecordsOnlySelectedSignalsTest() {
+        // given
+        signalTracer.enable("names", 1.0, Set.of(SignalType.ON_ERROR, SignalType.ON_COMPLETE));
+
+        // when
+        var fluxOfNames = Flux.just("alex", "ben").transform(signalTracer.flux("names"));
+
+        // then
+        StepVerifier.create(fluxOfNames)
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertEquals(List.of(SignalType.ON_COMPLETE), recordedSignals);
+    }
+
+    @Test
+    void sampledPipelineTracesOnlySomeSubscriptionsTest() {
+        // given
+        signalTracer.enable("names", 0.1, Set.of(SignalType.ON_COMPLETE));
+        var fluxOfNames = Flux.just("alex").transform(signalTracer.flux("names"));
+
+        // when
+        for(int i = 0; i < 1000; i++)
+            fluxOfNames.blockLast();
+
+        // then
+        // Con un muestreo del 10% se trazan alrededor de 100 subscripciones.
+        assertTrue(recordedSignals.size() > 20 && recordedSignals.size() < 300);
+    }
+}
@@ -0,0 +1,113 @@
+package com.mlorenzo.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Mono<String> load(Long key) {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+
+            return "value-" + key;
+        });
+    }
+
+    @Test
+    void getCachesLoadedValueTest() {
+        // given
+        var cache = new ReactiveCache<Long, String>(10, Duration.ofSeconds(1), now::get);
+
+        // when
+        cache.get(1L, this::load).block();
+        var value = cache.get(1L, this::load);
+
+        // then
+        StepVerifier.create(value)
+                .expectNext("value-1")
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsedEntryTest() {
+        // given
+        var cache = new ReactiveCache<Long, String>(2, Duration.ofSeconds(1), now::get);
+
+        // when
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+        cache.get(1L, this::load).block();
+        cache.get(3L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        // then
+        // La clave 2 era la menos usada cuando se añadió la clave 3 y, por lo tanto, se tiene que volver a cargar.
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void getReloadsExpiredEntryTest() {
+        // given
+        var cache = new ReactiveCache<Long, String>(10, Duration.ofMillis(500), now::get);
+
+        // when
+        cache.get(1L, this::load).block();
+        now.addAndGet(500);
+        cache.get(1L, this::load).block();
+
+        // then
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void getDoesNotCacheErrorsTest() {
+        // given
+        var cache = new ReactiveCache<Long, String>(10, Duration.ofSeconds(1), now::get);
+
+        // when
+        var failed = cache.get(1L, key -> Mono.error(new RuntimeException("Exception occurred!")));
+
+        // then
+        StepVerifier.create(failed)
+                .expectErrorMessage("Exception occurred!")
+                .verify();
+
+        StepVerifier.create(cache.get(1L, this::load))
+                .expectNext("value-1")
+                .verifyComplete();
+    }
+
+    @Test
+    void getSharesConcurrentLoadsTest() {
+        // given
+        var cache = new ReactiveCache<Long, String>(10, Duration.ofSeconds(1), now::get);
+        var slowLoad = Mono.delay(Duration.ofMillis(100)).then(load(1L));
+
+        // when
+        var first = cache.get(1L, key -> slowLoad);
+        var second = cache.get(1L, key -> slowLoad);
+
+        // then
+        StepVerifier.create(first.zipWith(second))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+    }
+}